@@ -0,0 +1,312 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classe qui traite une série d'images en pipeline : décodage, puis flou, biomes et écosystèmes, puis encodage.
+ * Chaque image produit l'image de ses biomes (nom_biomes.png) et un fichier d'étiquettes {@link LabelMap}
+ * (nom.biomes) qui contient aussi ses écosystèmes, exportable en images avec {@link MainExport}.
+ * Les étapes d'entrée-sortie et l'étape de calcul ont chacune leur pool de threads et communiquent par des files bornées :
+ * une étape trop rapide attend la suivante, si bien que le nombre d'images en mémoire reste borné
+ * pendant que le disque et les processeurs travaillent en même temps.
+ * Une image qui échoue, y compris par une erreur comme OutOfMemoryError, est signalée puis ignorée ;
+ * si une étape s'arrête malgré tout, tous les pools sont arrêtés pour qu'aucun thread ne reste bloqué sur une file.
+ */
+public class BatchPipeline {
+    /**
+     * Graine du générateur aléatoire, pour des résultats reproductibles d'une exécution à l'autre.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Couleur de la palette la plus proche de chaque couleur, au sens de la distance CIELAB, partagée par tous les threads.
+     */
+    private static final PaletteClassifier CLASSIFIER = new PaletteClassifier(Palette.BIOME_COLORS, NormeCielab::distanceCouleur);
+
+    /**
+     * Interface recevant l'avancement du traitement. Ses méthodes sont appelées depuis les threads du pipeline,
+     * éventuellement plusieurs à la fois.
+     */
+    public interface ProgressListener {
+        /**
+         * Appelée quand les sorties d'une image ont été écrites.
+         *
+         * @param input L'image traitée.
+         * @param output L'image des biomes écrite.
+         * @param ecosystemCount Le nombre d'écosystèmes détectés.
+         */
+        default void imageCompleted(Path input, Path output, int ecosystemCount) {
+        }
+
+        /**
+         * Appelée quand une image est ignorée parce qu'elle n'a pas pu être lue, traitée ou écrite.
+         *
+         * @param input L'image ignorée.
+         * @param reason La raison de l'échec.
+         */
+        default void imageFailed(Path input, String reason) {
+        }
+    }
+
+    /**
+     * Image en cours de traitement, transmise d'une étape à la suivante.
+     */
+    private static class Job {
+        private Path input;
+        private BufferedImage image;
+        private LabelMap labelMap;
+        private BufferedImage biomeImage;
+        private int ecosystemCount;
+
+        private Job(Path input) {
+            this.input = input;
+        }
+    }
+
+    /**
+     * Marque de fin de file : chaque thread d'une étape s'arrête après en avoir reçu une.
+     */
+    private static final Job END = new Job(null);
+
+    /**
+     * Boucle d'une étape, exécutée par chacun de ses threads.
+     */
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    private Path outputDirectory;
+    private int blurLevel;
+    private int cpuThreads;
+    private int ioThreads;
+    private ProgressListener progress = new ProgressListener() {
+    };
+
+    /**
+     * Constructeur pour initialiser le pipeline.
+     *
+     * @param outputDirectory Le dossier qui reçoit les images des biomes.
+     * @param blurLevel Le niveau de flou gaussien appliqué avant le clustering, ou 1 pour ne pas flouter.
+     * @param cpuThreads Le nombre d'images traitées en même temps par l'étape de calcul.
+     * @param ioThreads Le nombre de threads de chacune des étapes de décodage et d'encodage.
+     */
+    public BatchPipeline(Path outputDirectory, int blurLevel, int cpuThreads, int ioThreads) {
+        this.outputDirectory = outputDirectory;
+        this.blurLevel = blurLevel;
+        this.cpuThreads = cpuThreads;
+        this.ioThreads = ioThreads;
+    }
+
+    /**
+     * Méthode pour recevoir l'avancement du traitement (aucun par défaut).
+     *
+     * @param listener Le listener qui reçoit l'avancement.
+     */
+    public void setProgressListener(ProgressListener listener) {
+        this.progress = listener;
+    }
+
+    /**
+     * Méthode pour traiter toutes les images. Une image qui ne peut pas être traitée est signalée au listener
+     * d'avancement puis ignorée.
+     *
+     * @param inputs Les images à traiter.
+     * @return Le nombre d'images traitées avec succès.
+     * @throws InterruptedException Si le thread appelant est interrompu.
+     */
+    public int run(List<Path> inputs) throws InterruptedException {
+        BlockingQueue<Job> decoded = new ArrayBlockingQueue<>(cpuThreads);
+        BlockingQueue<Job> processed = new ArrayBlockingQueue<>(ioThreads);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService decodePool = Executors.newFixedThreadPool(ioThreads);
+        ExecutorService cpuPool = Executors.newFixedThreadPool(cpuThreads);
+        ExecutorService encodePool = Executors.newFixedThreadPool(ioThreads);
+        // Arrêter tous les pools dès qu'une étape meurt : ses voisines ne restent pas bloquées sur une file
+        Runnable abort = () -> {
+            decodePool.shutdownNow();
+            cpuPool.shutdownNow();
+            encodePool.shutdownNow();
+        };
+        try {
+            List<Future<?>> decoders = new ArrayList<>();
+            List<Future<?>> workers = new ArrayList<>();
+            List<Future<?>> encoders = new ArrayList<>();
+            for (int t = 0; t < ioThreads; t++) {
+                decoders.add(decodePool.submit(guard(() -> decode(inputs, next, decoded), failure, abort)));
+                encoders.add(encodePool.submit(guard(() -> encode(processed, succeeded), failure, abort)));
+            }
+            for (int t = 0; t < cpuThreads; t++) {
+                workers.add(cpuPool.submit(guard(() -> process(decoded, processed), failure, abort)));
+            }
+
+            // Chaque étape terminée prévient tous les threads de l'étape suivante
+            await(decoders, failure);
+            for (int t = 0; t < cpuThreads; t++) {
+                put(decoded, END, failure);
+            }
+            await(workers, failure);
+            for (int t = 0; t < ioThreads; t++) {
+                put(processed, END, failure);
+            }
+            await(encoders, failure);
+        } finally {
+            decodePool.shutdownNow();
+            cpuPool.shutdownNow();
+            encodePool.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    /**
+     * Étape de décodage : lit les images l'une après l'autre, en attendant que l'étape de calcul ait de la place.
+     */
+    private void decode(List<Path> inputs, AtomicInteger next, BlockingQueue<Job> decoded) throws InterruptedException {
+        int i;
+        while ((i = next.getAndIncrement()) < inputs.size()) {
+            Job job = new Job(inputs.get(i));
+            try {
+                job.image = ImageIO.read(job.input.toFile());
+                if (job.image == null) {
+                    progress.imageFailed(job.input, "format d'image non reconnu");
+                    continue;
+                }
+            } catch (IOException e) {
+                progress.imageFailed(job.input, "lecture impossible : " + e.getMessage());
+                continue;
+            } catch (RuntimeException | Error e) {
+                // Les décodeurs lèvent aussi des exceptions non vérifiées sur les fichiers corrompus,
+                // et une image trop grande peut épuiser la mémoire
+                progress.imageFailed(job.input, "lecture impossible : " + e);
+                continue;
+            }
+            decoded.put(job);
+        }
+    }
+
+    /**
+     * Étape de calcul : flou, biomes par KMeans sur l'histogramme des couleurs, écosystèmes par composantes connexes,
+     * puis coloration de chaque biome avec sa couleur dominante dans la palette.
+     */
+    private void process(BlockingQueue<Job> decoded, BlockingQueue<Job> processed) throws InterruptedException {
+        Job job;
+        while ((job = decoded.take()) != END) {
+            try {
+                BufferedImage image = blurLevel > 1 ? FlouGaussien.applyGaussianBlur(job.image, blurLevel) : job.image;
+                int width = image.getWidth();
+                int height = image.getHeight();
+
+                ColorHistogram histogram = ColorHistogram.of(image);
+                ClusteringAlgorithm kmeans = new KMeans(10, 100, KMeansStrategy.HAMERLY,
+                        KMeansInitialisation.KMEANS_PLUS_PLUS, SEED); // 10 clusters pour les biomes
+                int[] biomes = new EcosystemDetection(kmeans).detectEcosystems(histogram);
+
+                int[] ecosystems = new ConnectedComponents(5.0, 3).label(biomes, width, height);
+                for (int label : ecosystems) {
+                    job.ecosystemCount = Math.max(job.ecosystemCount, label);
+                }
+
+                // Chaque biome prend la couleur de la palette la plus proche de la majorité de ses pixels
+                int[] colors = CLASSIFIER.dominantColors(PixelBuffer.of(image).getPixels(), biomes, 10);
+                job.labelMap = new LabelMap(width, height, biomes, ecosystems, colors);
+                job.biomeImage = job.labelMap.toBiomeImage();
+                job.image = null;
+            } catch (RuntimeException | Error e) {
+                progress.imageFailed(job.input, "échec du traitement : " + e);
+                continue;
+            }
+            processed.put(job);
+        }
+    }
+
+    /**
+     * Étape d'encodage : écrit l'image des biomes et le fichier d'étiquettes (biomes et écosystèmes)
+     * de chaque image traitée.
+     */
+    private void encode(BlockingQueue<Job> processed, AtomicInteger succeeded) throws InterruptedException {
+        Job job;
+        while ((job = processed.take()) != END) {
+            String name = job.input.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String baseName = dot > 0 ? name.substring(0, dot) : name;
+            Path output = outputDirectory.resolve(baseName + "_biomes.png");
+            try {
+                ImageIO.write(job.biomeImage, "png", output.toFile());
+                job.labelMap.write(outputDirectory.resolve(baseName + ".biomes"));
+                succeeded.incrementAndGet();
+                progress.imageCompleted(job.input, output, job.ecosystemCount);
+            } catch (IOException e) {
+                progress.imageFailed(job.input, "écriture de " + output + " impossible : " + e.getMessage());
+            } catch (RuntimeException | Error e) {
+                progress.imageFailed(job.input, "écriture de " + output + " impossible : " + e);
+            }
+        }
+    }
+
+    /**
+     * Enveloppe la boucle d'une étape : si elle s'arrête sur une erreur, la première erreur est conservée
+     * et tous les pools sont arrêtés, ce qui interrompt les threads bloqués sur une file.
+     */
+    private static Callable<Void> guard(Stage stage, AtomicReference<Throwable> failure, Runnable abort) {
+        return () -> {
+            try {
+                stage.run();
+                return null;
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                abort.run();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Ajoute une marque de fin à une file sans rester bloqué si l'étape qui la lit s'est arrêtée.
+     */
+    private static void put(BlockingQueue<Job> queue, Job job, AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        while (!queue.offer(job, 100, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                throw new IllegalStateException("Échec d'une étape du pipeline", failure.get());
+            }
+        }
+    }
+
+    /**
+     * Attend la fin des threads d'une étape et propage la première erreur du pipeline.
+     */
+    private static void await(List<Future<?>> futures, AtomicReference<Throwable> failure) throws InterruptedException {
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(100, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // Une autre étape a pu s'arrêter : celle-ci ne finirait alors jamais
+                    if (failure.get() != null) {
+                        throw new IllegalStateException("Échec d'une étape du pipeline", failure.get());
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = failure.get() != null ? failure.get() : e.getCause();
+                    throw new IllegalStateException("Échec d'une étape du pipeline", cause);
+                }
+            }
+        }
+    }
+}
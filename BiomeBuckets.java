@@ -0,0 +1,81 @@
+/**
+ * Classe qui regroupe les index des pixels par biome, en un seul tri par dénombrement.
+ * Tous les index tiennent dans un seul tableau : ceux du biome b occupent la tranche [start(b), start(b + 1)[,
+ * dans l'ordre de parcours de l'image (ligne par ligne).
+ */
+public class BiomeBuckets {
+    private int[] indices;
+    private int[] starts;
+    private int width;
+
+    /**
+     * Constructeur pour regrouper les pixels d'une image selon leur biome.
+     *
+     * @param labels Le biome de chaque pixel, ligne par ligne ; les valeurs hors de [0, k[ (le bruit) sont ignorées.
+     * @param k Le nombre de biomes.
+     * @param width La largeur de l'image.
+     */
+    public BiomeBuckets(int[] labels, int k, int width) {
+        this.width = width;
+
+        // Taille de chaque tranche, puis sommes cumulées pour obtenir leurs débuts
+        starts = new int[k + 1];
+        for (int label : labels) {
+            if (label >= 0 && label < k) starts[label + 1]++;
+        }
+        for (int b = 0; b < k; b++) {
+            starts[b + 1] += starts[b];
+        }
+
+        indices = new int[starts[k]];
+        int[] next = new int[k];
+        System.arraycopy(starts, 0, next, 0, k);
+        for (int i = 0; i < labels.length; i++) {
+            int label = labels[i];
+            if (label >= 0 && label < k) indices[next[label]++] = i;
+        }
+    }
+
+    /**
+     * @return Le nombre de biomes.
+     */
+    public int size() {
+        return starts.length - 1;
+    }
+
+    /**
+     * @param biome Le biome.
+     * @return Le nombre de pixels du biome.
+     */
+    public int count(int biome) {
+        return starts[biome + 1] - starts[biome];
+    }
+
+    /**
+     * Méthode pour lire l'index d'un pixel d'un biome.
+     *
+     * @param biome Le biome.
+     * @param i La position du pixel dans le biome.
+     * @return L'index du pixel dans l'image (y * width + x).
+     */
+    public int getIndex(int biome, int i) {
+        return indices[starts[biome] + i];
+    }
+
+    /**
+     * Méthode pour obtenir les positions des pixels d'un biome, dans l'ordre de la tranche.
+     *
+     * @param biome Le biome.
+     * @return Une matrice contenant les positions (x, y) des pixels du biome.
+     */
+    public PointMatrix getPositions(int biome) {
+        int count = count(biome);
+        PointMatrix positions = new PointMatrix(count, 2);
+        for (int i = 0; i < count; i++) {
+            int index = getIndex(biome, i);
+            positions.set(i, 0, index % width);
+            positions.set(i, 1, index / width);
+        }
+        return positions;
+    }
+}
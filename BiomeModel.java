@@ -0,0 +1,258 @@
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Classe représentant un modèle de biomes appris : les centroids des biomes dans l'espace des couleurs normalisées
+ * (r, g, b dans [0, 1], comme {@link PointSource#ofImage}) et la couleur de la palette associée à chaque biome.
+ * Le modèle est appris une fois (fit), enregistré, puis rechargé pour étiqueter de nouvelles images
+ * d'une planète du même type en une seule passe (predict), sans relancer le clustering.
+ * <p>
+ * Format (gros-boutiste) : "BMOD", version (1 octet), nombre de biomes et nombre de dimensions (int),
+ * les centroids (double, biome par biome), puis la couleur 0xRRGGBB de chaque biome (int).
+ */
+public class BiomeModel {
+    private static final int MAGIC = 0x424D4F44; // "BMOD"
+    private static final byte VERSION = 1;
+
+    /**
+     * Nombre de pixels étiquetés par tâche.
+     */
+    private static final int BLOCK_SIZE = 16384;
+
+    /**
+     * Valeur normalisée de chaque niveau de canal, calculée comme PointSource.ofImage.
+     */
+    private static final double[] CHANNEL = new double[256];
+
+    static {
+        for (int i = 0; i < CHANNEL.length; i++) {
+            CHANNEL[i] = i / 255.0;
+        }
+    }
+
+    private double[][] centroids;
+    private int[] colors;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Constructeur pour initialiser le modèle.
+     *
+     * @param centroids Les centroids des biomes, de dimension 3 (r, g, b dans [0, 1]).
+     * @param colors La couleur de chaque biome, au format 0xRRGGBB.
+     */
+    public BiomeModel(double[][] centroids, int[] colors) {
+        if (centroids.length != colors.length) {
+            throw new IllegalArgumentException("Il faut une couleur par biome : " + colors.length + " au lieu de " + centroids.length);
+        }
+        for (double[] centroid : centroids) {
+            if (centroid.length != 3) {
+                throw new IllegalArgumentException("Les centroids doivent être de dimension 3 : " + centroid.length);
+            }
+        }
+        this.centroids = centroids;
+        this.colors = colors;
+    }
+
+    /**
+     * Méthode pour créer un modèle à partir de centroids déjà appris (par exemple par MiniBatchKMeans) :
+     * chaque biome prend la couleur de la palette la plus proche de son centroid.
+     *
+     * @param centroids Les centroids des biomes.
+     * @param classifier La palette et sa distance.
+     * @return Le modèle.
+     */
+    public static BiomeModel of(double[][] centroids, PaletteClassifier classifier) {
+        int[] colors = new int[centroids.length];
+        for (int i = 0; i < centroids.length; i++) {
+            int r = (int) Math.round(centroids[i][0] * 255);
+            int g = (int) Math.round(centroids[i][1] * 255);
+            int b = (int) Math.round(centroids[i][2] * 255);
+            colors[i] = classifier.closestColor((clamp(r) << 16) | (clamp(g) << 8) | clamp(b));
+        }
+        return new BiomeModel(centroids, colors);
+    }
+
+    /**
+     * Méthode pour apprendre un modèle sur une image : KMeans sur l'histogramme des couleurs, puis une couleur
+     * de la palette par biome.
+     *
+     * @param image L'image d'apprentissage.
+     * @param kmeans L'algorithme KMeans, qui fixe le nombre de biomes.
+     * @param classifier La palette et sa distance.
+     * @return Le modèle.
+     */
+    public static BiomeModel fit(BufferedImage image, KMeans kmeans, PaletteClassifier classifier) {
+        ColorHistogram histogram = ColorHistogram.of(image);
+        kmeans.cluster(histogram.getPoints(), histogram.getCounts());
+        return of(kmeans.getCentroids(), classifier);
+    }
+
+    /**
+     * @return Le nombre de biomes.
+     */
+    public int size() {
+        return centroids.length;
+    }
+
+    /**
+     * @return La couleur de chaque biome, au format 0xRRGGBB.
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * Méthode pour choisir le pool de threads de predict (le pool commun par défaut).
+     *
+     * @param pool Le pool de threads.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Méthode pour étiqueter une image en une seule passe : chaque pixel prend le biome du centroid le plus proche.
+     * Les pixels sont découpés en blocs traités en parallèle.
+     *
+     * @param image Les pixels de l'image.
+     * @return Le biome de chaque pixel, ligne par ligne.
+     */
+    public int[] predict(PixelBuffer image) {
+        int[] pixels = image.getPixels();
+        int[] labels = new int[pixels.length];
+        if (pixels.length <= BLOCK_SIZE) {
+            predictBlock(pixels, labels, 0, pixels.length);
+            return labels;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < pixels.length; start += BLOCK_SIZE) {
+            int from = start;
+            int to = Math.min(start + BLOCK_SIZE, pixels.length);
+            tasks.add(pool.submit(() -> predictBlock(pixels, labels, from, to)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return labels;
+    }
+
+    /**
+     * Méthode pour colorier des étiquettes avec la couleur de chaque biome.
+     *
+     * @param labels Le biome de chaque pixel, ligne par ligne.
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @return L'image des biomes.
+     */
+    public BufferedImage toImage(int[] labels, int width, int height) {
+        PixelBuffer image = new PixelBuffer(width, height);
+        int[] pixels = image.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = colors[labels[i]];
+        }
+        return image.toImage();
+    }
+
+    /**
+     * Méthode pour écrire le modèle.
+     *
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public void write(Path path) throws IOException {
+        int k = centroids.length;
+        ByteBuffer buffer = ByteBuffer.allocate(13 + k * (3 * Double.BYTES + Integer.BYTES));
+        buffer.putInt(MAGIC).put(VERSION).putInt(k).putInt(3);
+        for (double[] centroid : centroids) {
+            for (double value : centroid) {
+                buffer.putDouble(value);
+            }
+        }
+        for (int color : colors) {
+            buffer.putInt(color);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Méthode pour charger un modèle écrit par write. Le fichier est projeté en mémoire pendant la lecture.
+     *
+     * @param path Le chemin du fichier.
+     * @return Le modèle.
+     * @throws IOException Si le fichier ne peut pas être lu ou n'est pas au bon format.
+     */
+    public static BiomeModel load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 13 || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Fichier de modèle invalide : " + path);
+            }
+            int k = buffer.getInt();
+            int dimensions = buffer.getInt();
+            if (k <= 0 || dimensions != 3 || buffer.remaining() != (long) k * (dimensions * Double.BYTES + Integer.BYTES)) {
+                throw new IOException("Fichier de modèle incomplet : " + path);
+            }
+            double[][] centroids = new double[k][dimensions];
+            for (double[] centroid : centroids) {
+                buffer.asDoubleBuffer().get(centroid);
+                buffer.position(buffer.position() + dimensions * Double.BYTES);
+            }
+            int[] colors = new int[k];
+            buffer.asIntBuffer().get(colors);
+            return new BiomeModel(centroids, colors);
+        }
+    }
+
+    /**
+     * Étiquette les pixels [from, to[. Les centroids sont copiés dans un tableau à plat pour la boucle interne,
+     * qui compare les carrés des distances.
+     */
+    private void predictBlock(int[] pixels, int[] labels, int from, int to) {
+        int k = centroids.length;
+        double[] flat = new double[3 * k];
+        for (int i = 0; i < k; i++) {
+            flat[3 * i] = centroids[i][0];
+            flat[3 * i + 1] = centroids[i][1];
+            flat[3 * i + 2] = centroids[i][2];
+        }
+
+        for (int p = from; p < to; p++) {
+            int rgb = pixels[p];
+            double r = CHANNEL[(rgb >> 16) & 0xFF];
+            double g = CHANNEL[(rgb >> 8) & 0xFF];
+            double b = CHANNEL[rgb & 0xFF];
+            double minDist = Double.MAX_VALUE;
+            int nearest = 0;
+            for (int i = 0; i < k; i++) {
+                double dr = r - flat[3 * i];
+                double dg = g - flat[3 * i + 1];
+                double db = b - flat[3 * i + 2];
+                double dist = dr * dr + dg * dg + db * db;
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearest = i;
+                }
+            }
+            labels[p] = nearest;
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -9,4 +9,39 @@ public interface ClusteringAlgorithm {
      * @return Tableau contenant les numéros de cluster pour chaque objet.
      */
     int[] cluster(double[][] data);
+
+    /**
+     * Méthode pour effectuer le clustering sur une matrice de points dense.
+     * Par défaut, la matrice est copiée dans un tableau en deux dimensions.
+     *
+     * @param points La matrice des points.
+     * @return Tableau contenant les numéros de cluster pour chaque objet.
+     */
+    default int[] cluster(PointMatrix points) {
+        return cluster(points.toArray());
+    }
+
+    /**
+     * Méthode pour effectuer le clustering sur une source de points.
+     * Par défaut, les points sont d'abord copiés dans un tableau en deux dimensions.
+     *
+     * @param source La source des points.
+     * @return Tableau contenant les numéros de cluster pour chaque objet.
+     */
+    default int[] cluster(PointSource source) {
+        double[][] data = new double[source.size()][source.dimensions()];
+        for (int i = 0; i < data.length; i++) {
+            source.get(i, data[i]);
+        }
+        return cluster(data);
+    }
+
+    /**
+     * Méthode pour recevoir les mesures internes de l'algorithme (itérations, requêtes de voisinage...).
+     * Par défaut, l'algorithme ne signale rien.
+     *
+     * @param listener Le listener qui reçoit les mesures, ou {@link MetricsListener#NONE}.
+     */
+    default void setMetricsListener(MetricsListener listener) {
+    }
 }
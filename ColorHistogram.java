@@ -0,0 +1,103 @@
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Classe qui résume une image à ses couleurs distinctes et au nombre de pixels de chacune.
+ * Une image de plusieurs millions de pixels ne compte souvent que quelques dizaines de milliers de couleurs :
+ * on regroupe les couleurs pondérées, puis on reporte les étiquettes sur les pixels.
+ */
+public class ColorHistogram {
+    private int[] colors;
+    private double[] counts;
+    private int[] pixelColors;
+
+    private ColorHistogram(int[] colors, double[] counts, int[] pixelColors) {
+        this.colors = colors;
+        this.counts = counts;
+        this.pixelColors = pixelColors;
+    }
+
+    /**
+     * Construit l'histogramme des couleurs d'une image.
+     *
+     * @param image L'image.
+     * @return L'histogramme des couleurs.
+     */
+    public static ColorHistogram of(BufferedImage image) {
+        int[] pixels = PixelBuffer.of(image).getPixels();
+
+        // Couleurs distinctes par tri
+        int[] sorted = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            sorted[i] = pixels[i] & 0xFFFFFF;
+        }
+        Arrays.parallelSort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        int[] colors = Arrays.copyOf(sorted, unique);
+
+        // Chaque pixel est associé à l'index de sa couleur
+        double[] counts = new double[unique];
+        int[] pixelColors = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int colorIndex = Arrays.binarySearch(colors, pixels[i] & 0xFFFFFF);
+            pixelColors[i] = colorIndex;
+            counts[colorIndex]++;
+        }
+        return new ColorHistogram(colors, counts, pixelColors);
+    }
+
+    /**
+     * @return Le nombre de couleurs distinctes.
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * @return Les couleurs distinctes, au format RGB compacté (0xRRGGBB), triées.
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * @return Le nombre de pixels de chaque couleur distincte, à utiliser comme poids.
+     */
+    public double[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * Méthode pour obtenir les couleurs distinctes normalisées, comme extractPixelData le fait pour les pixels.
+     *
+     * @return Une matrice contenant les valeurs (r, g, b) dans [0, 1] de chaque couleur distincte.
+     */
+    public PointMatrix getPoints() {
+        PointMatrix points = new PointMatrix(colors.length, 3);
+        for (int i = 0; i < colors.length; i++) {
+            points.set(i, 0, ((colors[i] >> 16) & 0xFF) / 255.0);
+            points.set(i, 1, ((colors[i] >> 8) & 0xFF) / 255.0);
+            points.set(i, 2, (colors[i] & 0xFF) / 255.0);
+        }
+        return points;
+    }
+
+    /**
+     * Méthode pour reporter les étiquettes des couleurs distinctes sur les pixels de l'image.
+     *
+     * @param colorLabels L'étiquette de chaque couleur distincte.
+     * @return L'étiquette de chaque pixel, ligne par ligne.
+     */
+    public int[] toPixelLabels(int[] colorLabels) {
+        int[] labels = new int[pixelColors.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = colorLabels[pixelColors[i]];
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Structure union-find sans verrou, utilisable simultanément par plusieurs threads.
+ * La racine d'un ensemble est toujours son plus petit élément.
+ */
+public class ConcurrentUnionFind {
+    private AtomicIntegerArray parent;
+
+    /**
+     * Constructeur pour initialiser n singletons.
+     *
+     * @param n Le nombre d'éléments.
+     */
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /**
+     * Méthode pour trouver la racine de l'ensemble d'un élément, avec compression de chemin par moitié.
+     *
+     * @param x L'élément.
+     * @return La racine de son ensemble.
+     */
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) return x;
+            int grandParent = parent.get(p);
+            if (grandParent != p) {
+                parent.compareAndSet(x, p, grandParent);
+            }
+            x = grandParent;
+        }
+    }
+
+    /**
+     * Méthode pour fusionner les ensembles de deux éléments.
+     *
+     * @param a Premier élément.
+     * @param b Deuxième élément.
+     */
+    public void union(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) return;
+            // Rattacher la plus grande racine à la plus petite
+            if (rootA < rootB) {
+                int tmp = rootA;
+                rootA = rootB;
+                rootB = tmp;
+            }
+            if (parent.compareAndSet(rootA, rootA, rootB)) return;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Classe implémentant la détection d'écosystèmes par étiquetage en composantes connexes sur la grille des pixels.
+ * Deux pixels de même valeur sont reliés s'ils sont voisins (forme et rayon du voisinage configurables) ;
+ * un premier parcours fusionne chaque pixel avec ses voisins déjà vus dans une structure union-find,
+ * un second parcours numérote les composantes. Le coût est linéaire en nombre de pixels.
+ * Comme pour DBSCAN, les clusters sont numérotés à partir de 1 et le bruit vaut -1.
+ */
+public class ConnectedComponents implements ClusteringAlgorithm {
+    private double radius;
+    private Connectivity connectivity;
+    private int minSize;
+    private int[] parent;
+
+    /**
+     * Constructeur pour la 8-connexité habituelle, sans bruit.
+     */
+    public ConnectedComponents() {
+        this(1, Connectivity.EIGHT, 1);
+    }
+
+    /**
+     * Constructeur pour un voisinage en disque, comme le rayon eps de DBSCAN.
+     *
+     * @param eps Le rayon de voisinage.
+     * @param minSize Le nombre minimum de pixels d'une composante ; les plus petites sont du bruit.
+     */
+    public ConnectedComponents(double eps, int minSize) {
+        this(eps, Connectivity.EUCLIDEAN, minSize);
+    }
+
+    /**
+     * Constructeur complet.
+     *
+     * @param radius Le rayon du voisinage.
+     * @param connectivity La forme du voisinage.
+     * @param minSize Le nombre minimum de pixels d'une composante ; les plus petites sont du bruit.
+     */
+    public ConnectedComponents(double radius, Connectivity connectivity, int minSize) {
+        this.radius = radius;
+        this.connectivity = connectivity;
+        this.minSize = minSize;
+    }
+
+    @Override
+    public int[] cluster(double[][] data) {
+        return cluster(PointMatrix.of(data));
+    }
+
+    /**
+     * Regroupe des positions de pixels (x, y), arrondies à l'entier le plus proche.
+     * Les positions sont placées dans une grille couvrant leur rectangle englobant.
+     */
+    @Override
+    public int[] cluster(PointMatrix points) {
+        int n = points.size();
+        if (n == 0) return new int[0];
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = (int) Math.round(points.get(i, 0));
+            ys[i] = (int) Math.round(points.get(i, 1));
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        // Grille : 1 si une position tombe dans la case, 0 sinon ; seules les cases à 1 sont étiquetées
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+        int[] grid = new int[width * height];
+        for (int i = 0; i < n; i++) {
+            grid[(ys[i] - minY) * width + (xs[i] - minX)] = 1;
+        }
+        int[] cellLabels = label(grid, width, height, 0);
+
+        // Les positions confondues dans une même case comptent chacune pour la taille de la composante
+        int[] labels = new int[n];
+        for (int i = 0; i < n; i++) {
+            labels[i] = cellLabels[(ys[i] - minY) * width + (xs[i] - minX)];
+        }
+        return minSize > 1 ? removeSmall(labels) : labels;
+    }
+
+    /**
+     * Étiquette en une fois les composantes de toutes les valeurs d'une grille, par exemple les écosystèmes
+     * de tous les biomes d'une image : seuls des pixels de même valeur peuvent appartenir à la même composante.
+     *
+     * @param raster La valeur de chaque pixel, ligne par ligne.
+     * @param width La largeur de la grille.
+     * @param height La hauteur de la grille.
+     * @return Le numéro de composante (à partir de 1) de chaque pixel, ou -1 pour le bruit.
+     */
+    public int[] label(int[] raster, int width, int height) {
+        int[] labels = label(raster, width, height, Integer.MIN_VALUE);
+        return minSize > 1 ? removeSmall(labels) : labels;
+    }
+
+    /**
+     * Étiquetage en deux parcours. Les pixels valant ignored reçoivent l'étiquette 0.
+     */
+    private int[] label(int[] raster, int width, int height, int ignored) {
+        int[] offsets = previousNeighbors();
+        int n = width * height;
+        parent = new int[n];
+
+        // Premier parcours : fusion avec les voisins déjà parcourus (lignes au-dessus, ou à gauche sur la ligne)
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                parent[i] = i;
+                int value = raster[i];
+                if (value == ignored) continue;
+                for (int o = 0; o < offsets.length; o += 2) {
+                    int nx = x + offsets[o];
+                    int ny = y + offsets[o + 1];
+                    if (nx < 0 || nx >= width || ny < 0) continue;
+                    int j = ny * width + nx;
+                    if (raster[j] == value) {
+                        union(i, j);
+                    }
+                }
+            }
+        }
+
+        // Second parcours : la racine d'une composante est son premier pixel, numéroté avant les autres
+        int[] labels = new int[n];
+        int clusterId = 0;
+        for (int i = 0; i < n; i++) {
+            if (raster[i] == ignored) continue;
+            int root = find(i);
+            labels[i] = root == i ? ++clusterId : labels[root];
+        }
+        parent = null;
+        return labels;
+    }
+
+    /**
+     * Décalages (dx, dy) du voisinage qui précèdent le pixel dans l'ordre de parcours.
+     */
+    private int[] previousNeighbors() {
+        int r = (int) Math.floor(radius);
+        IntList offsets = new IntList(16);
+        for (int dy = -r; dy <= 0; dy++) {
+            for (int dx = -r; dx <= r; dx++) {
+                if (dy == 0 && dx >= 0) break;
+                if (connectivity.contains(dx, dy, radius)) {
+                    offsets.add(dx);
+                    offsets.add(dy);
+                }
+            }
+        }
+        int[] result = new int[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Remplace par -1 les composantes de moins de minSize éléments et renumérote les autres à partir de 1.
+     */
+    private int[] removeSmall(int[] labels) {
+        int max = 0;
+        for (int label : labels) {
+            max = Math.max(max, label);
+        }
+        int[] sizes = new int[max + 1];
+        for (int label : labels) {
+            if (label > 0) sizes[label]++;
+        }
+        int[] renumber = new int[max + 1];
+        int clusterId = 0;
+        for (int c = 1; c <= max; c++) {
+            renumber[c] = sizes[c] >= minSize ? ++clusterId : -1;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] > 0) labels[i] = renumber[labels[i]];
+        }
+        return labels;
+    }
+
+    /**
+     * Méthode pour trouver la racine de l'ensemble d'un pixel, avec compression de chemin par moitié.
+     */
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Méthode pour fusionner les ensembles de deux pixels ; la racine reste le plus petit pixel.
+     */
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Forme du voisinage d'un pixel pour l'étiquetage en composantes connexes.
+ * Avec un rayon de 1, FOUR et EIGHT donnent la 4-connexité et la 8-connexité habituelles.
+ */
+public enum Connectivity {
+    /**
+     * Losange : |dx| + |dy| <= rayon.
+     */
+    FOUR,
+
+    /**
+     * Carré : max(|dx|, |dy|) <= rayon.
+     */
+    EIGHT,
+
+    /**
+     * Disque : dx² + dy² <= rayon², le voisinage de DBSCAN pour des positions de pixels.
+     */
+    EUCLIDEAN;
+
+    /**
+     * Méthode pour savoir si un décalage appartient au voisinage.
+     *
+     * @param dx Le décalage horizontal.
+     * @param dy Le décalage vertical.
+     * @param radius Le rayon du voisinage.
+     * @return Vrai si le pixel décalé est voisin.
+     */
+    public boolean contains(int dx, int dy, double radius) {
+        switch (this) {
+            case FOUR:
+                return Math.abs(dx) + Math.abs(dy) <= radius;
+            case EIGHT:
+                return Math.max(Math.abs(dx), Math.abs(dy)) <= radius;
+            default:
+                return dx * dx + dy * dy <= radius * radius;
+        }
+    }
+}
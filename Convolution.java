@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Classe implémentant les convolutions des flous sur des images au format RGB compacté (0xRRGGBB), ligne par ligne.
+ * L'image est découpée en bandes de lignes traitées en parallèle par les tâches d'un pool ; chaque bande recalcule
+ * les lignes voisines dont elle a besoin (le halo), si bien que les bandes sont indépendantes.
+ * Les boucles internes parcourent des tableaux contigus d'un seul canal, que le compilateur JIT peut vectoriser.
+ * Les pixels hors de l'image sont remplacés par le pixel du bord le plus proche.
+ */
+public class Convolution {
+    /**
+     * Hauteur minimale d'une bande de lignes.
+     */
+    private static final int BAND_HEIGHT = 64;
+
+    private ForkJoinPool pool;
+
+    /**
+     * Constructeur qui utilise le pool commun.
+     */
+    public Convolution() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructeur pour initialiser le pool de threads.
+     *
+     * @param pool Le pool de threads sur lequel exécuter les bandes.
+     */
+    public Convolution(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Applique un noyau séparable : le même noyau 1D horizontalement puis verticalement.
+     * Les canaux du résultat sont tronqués à l'entier inférieur.
+     *
+     * @param source Les pixels de l'image.
+     * @param target Le tableau qui reçoit les pixels floutés (différent de source).
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @param kernel Le noyau 1D, de taille impaire.
+     */
+    public void separable(int[] source, int[] target, int width, int height, float[] kernel) {
+        int radius = kernel.length / 2;
+        forEachBand(height, radius, (y0, y1) -> separableBand(source, target, width, height, kernel, y0, y1));
+    }
+
+    /**
+     * Applique un flou par moyenne sur une fenêtre de (2 * radius + 1)², par sommes glissantes entières.
+     *
+     * @param source Les pixels de l'image.
+     * @param target Le tableau qui reçoit les pixels floutés (différent de source).
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @param radius Le rayon de la fenêtre.
+     * @param roundToNearest Vrai pour arrondir les moyennes au plus proche, faux pour les tronquer.
+     */
+    public void box(int[] source, int[] target, int width, int height, int radius, boolean roundToNearest) {
+        forEachBand(height, radius, (y0, y1) -> boxBand(source, target, width, height, radius, roundToNearest, y0, y1));
+    }
+
+    private void separableBand(int[] source, int[] target, int width, int height, float[] kernel, int y0, int y1) {
+        int radius = kernel.length / 2;
+        int rows = y1 - y0 + 2 * radius;
+
+        // Passe horizontale sur les lignes de la bande et de son halo, canal par canal
+        float[][] horizontal = new float[3][rows * width];
+        float[][] padded = new float[3][width + 2 * radius];
+        for (int row = 0; row < rows; row++) {
+            int base = clamp(y0 - radius + row, height) * width;
+            for (int x = -radius; x < width + radius; x++) {
+                int rgb = source[base + clamp(x, width)];
+                padded[0][x + radius] = (rgb >> 16) & 0xFF;
+                padded[1][x + radius] = (rgb >> 8) & 0xFF;
+                padded[2][x + radius] = rgb & 0xFF;
+            }
+            for (int c = 0; c < 3; c++) {
+                float[] in = padded[c];
+                float[] out = horizontal[c];
+                int offset = row * width;
+                for (int i = 0; i < kernel.length; i++) {
+                    float weight = kernel[i];
+                    for (int x = 0; x < width; x++) {
+                        out[offset + x] += in[x + i] * weight;
+                    }
+                }
+            }
+        }
+
+        // Passe verticale
+        float[][] sums = new float[3][width];
+        for (int y = y0; y < y1; y++) {
+            for (int c = 0; c < 3; c++) {
+                float[] in = horizontal[c];
+                float[] out = sums[c];
+                Arrays.fill(out, 0);
+                for (int j = 0; j < kernel.length; j++) {
+                    float weight = kernel[j];
+                    int offset = (y - y0 + j) * width;
+                    for (int x = 0; x < width; x++) {
+                        out[x] += in[offset + x] * weight;
+                    }
+                }
+            }
+
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int newR = Math.min(Math.max((int) sums[0][x], 0), 255);
+                int newG = Math.min(Math.max((int) sums[1][x], 0), 255);
+                int newB = Math.min(Math.max((int) sums[2][x], 0), 255);
+                target[row + x] = (newR << 16) | (newG << 8) | newB;
+            }
+        }
+    }
+
+    private void boxBand(int[] source, int[] target, int width, int height, int radius, boolean roundToNearest,
+                         int y0, int y1) {
+        int rows = y1 - y0 + 2 * radius;
+
+        // Sommes horizontales : la fenêtre avance d'un pixel, un pixel entre et un pixel sort
+        int[] horizontal = new int[rows * width * 3];
+        for (int row = 0; row < rows; row++) {
+            int base = clamp(y0 - radius + row, height) * width;
+            int r = 0, g = 0, b = 0;
+            for (int i = -radius; i <= radius; i++) {
+                int rgb = source[base + clamp(i, width)];
+                r += (rgb >> 16) & 0xFF;
+                g += (rgb >> 8) & 0xFF;
+                b += rgb & 0xFF;
+            }
+            for (int x = 0; x < width; x++) {
+                int index = (row * width + x) * 3;
+                horizontal[index] = r;
+                horizontal[index + 1] = g;
+                horizontal[index + 2] = b;
+
+                int in = source[base + clamp(x + radius + 1, width)];
+                int out = source[base + clamp(x - radius, width)];
+                r += ((in >> 16) & 0xFF) - ((out >> 16) & 0xFF);
+                g += ((in >> 8) & 0xFF) - ((out >> 8) & 0xFF);
+                b += (in & 0xFF) - (out & 0xFF);
+            }
+        }
+
+        // Sommes verticales, ligne par ligne : une ligne de sommes horizontales entre et une sort
+        int[] columns = new int[width * 3];
+        for (int row = 0; row <= 2 * radius; row++) {
+            int base = row * width * 3;
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] += horizontal[base + c];
+            }
+        }
+        int area = (2 * radius + 1) * (2 * radius + 1);
+        int rounding = roundToNearest ? area / 2 : 0;
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int newR = Math.min((columns[x * 3] + rounding) / area, 255);
+                int newG = Math.min((columns[x * 3 + 1] + rounding) / area, 255);
+                int newB = Math.min((columns[x * 3 + 2] + rounding) / area, 255);
+                target[row + x] = (newR << 16) | (newG << 8) | newB;
+            }
+
+            if (y + 1 < y1) {
+                int inBase = (y - y0 + 2 * radius + 1) * width * 3;
+                int outBase = (y - y0) * width * 3;
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] += horizontal[inBase + c] - horizontal[outBase + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Interface d'une tâche portant sur les lignes [y0, y1[.
+     */
+    private interface BandTask {
+        void run(int y0, int y1);
+    }
+
+    /**
+     * Découpe l'image en bandes et exécute la tâche de chaque bande dans le pool.
+     * Les bandes sont au moins quatre fois plus hautes que le rayon, pour que le halo recalculé reste minoritaire.
+     */
+    private void forEachBand(int height, int radius, BandTask task) {
+        int bandHeight = Math.max(BAND_HEIGHT, 4 * radius);
+        if (height <= bandHeight) {
+            task.run(0, height);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int y0 = 0; y0 < height; y0 += bandHeight) {
+            int start = y0;
+            int end = Math.min(y0 + bandHeight, height);
+            tasks.add(pool.submit(() -> task.run(start, end)));
+        }
+        for (ForkJoinTask<?> t : tasks) {
+            t.join();
+        }
+    }
+
+    /**
+     * Ramène une coordonnée dans l'intervalle [0, size - 1].
+     */
+    private static int clamp(int value, int size) {
+        return Math.min(Math.max(value, 0), size - 1);
+    }
+}
@@ -1,20 +1,26 @@
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.BitSet;
 
 /**
  * Classe implémentant l'algorithme de clustering DBSCAN.
  */
-public class DBSCAN implements ClusteringAlgorithm {
+public class DBSCAN implements WeightedClusteringAlgorithm {
     private double eps;
     private int minPts;
+    private SpatialIndex index;
+    private IntList neighbors = new IntList(64);
+    private int[] queue;
+    private BitSet queued;
+    private double[] weights;
+    private MetricsListener metrics = MetricsListener.NONE;
+    private long regionQueries;
+    private long totalNeighbors;
+    private int maxNeighbors;
 
     /**
      * Constructeur pour initialiser les paramètres de DBSCAN.
      *
      * @param eps Le rayon de voisinage.
-     * @param minPts Le nombre minimum de points pour former un cluster.
+     * @param minPts Le nombre minimum de points (ou poids total) pour former un cluster.
      */
     public DBSCAN(double eps, int minPts) {
         this.eps = eps;
@@ -23,64 +29,114 @@ public class DBSCAN implements ClusteringAlgorithm {
 
     @Override
     public int[] cluster(double[][] data) {
-        int n = data.length;
+        return cluster(PointMatrix.of(data), null);
+    }
+
+    @Override
+    public int[] cluster(double[][] data, double[] weights) {
+        return cluster(PointMatrix.of(data), weights);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix points) {
+        return cluster(points, null);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix points, double[] weights) {
+        this.weights = weights;
+        int n = points.size();
         int[] labels = new int[n];
         int clusterId = 0;
+        index = SpatialIndex.build(points, eps);
+        queue = new int[n];
+        queued = new BitSet(n);
+        regionQueries = 0;
+        totalNeighbors = 0;
+        maxNeighbors = 0;
 
         for (int i = 0; i < n; i++) {
             if (labels[i] != 0) continue; // Déjà visité
 
-            Set<Integer> neighbors = regionQuery(data, i);
-            if (neighbors.size() < minPts) {
+            if (regionQuery(i) < minPts) {
                 labels[i] = -1; // Bruit
             } else {
                 clusterId++;
-                expandCluster(data, labels, i, neighbors, clusterId);
+                expandCluster(labels, i, clusterId);
             }
         }
 
+        metrics.dbscanCompleted("dbscan", regionQueries, totalNeighbors, maxNeighbors);
+        index = null;
+        queue = null;
+        queued = null;
+        this.weights = null;
         return labels;
     }
 
-    private void expandCluster(double[][] data, int[] labels, int pointIndex, Set<Integer> neighbors, int clusterId) {
+    @Override
+    public void setMetricsListener(MetricsListener listener) {
+        this.metrics = listener;
+    }
+
+    /**
+     * Étend un cluster à partir d'un point noyau dont les voisins sont dans le tampon de requête.
+     * Chaque point n'entre qu'une seule fois dans la file : elle ne dépasse donc jamais n éléments.
+     */
+    private void expandCluster(int[] labels, int pointIndex, int clusterId) {
         labels[pointIndex] = clusterId;
-        Set<Integer> uniqueNeighbors = new HashSet<>(neighbors);
+        queued.set(pointIndex);
+        int head = 0;
+        int tail = enqueueNeighbors(labels, 0);
 
-        while (!neighbors.isEmpty()) {
-            int neighborIndex = neighbors.iterator().next();
-            neighbors.remove(neighborIndex);
+        while (head < tail) {
+            int neighborIndex = queue[head++];
 
             if (labels[neighborIndex] == -1) {
-                labels[neighborIndex] = clusterId;
+                labels[neighborIndex] = clusterId; // Point frontière
+                continue;
             }
 
             if (labels[neighborIndex] == 0) {
                 labels[neighborIndex] = clusterId;
-                Set<Integer> newNeighbors = regionQuery(data, neighborIndex);
-                if (newNeighbors.size() >= minPts) {
-                    uniqueNeighbors.addAll(newNeighbors);
+                if (regionQuery(neighborIndex) >= minPts) {
+                    tail = enqueueNeighbors(labels, tail);
                 }
             }
         }
-        neighbors.addAll(uniqueNeighbors);
     }
 
-    private Set<Integer> regionQuery(double[][] data, int pointIndex) {
-        Set<Integer> neighbors = new HashSet<>();
-        for (int i = 0; i < data.length; i++) {
-            if (distance(data[pointIndex], data[i]) <= eps) {
-                neighbors.add(i);
+    /**
+     * Ajoute à la file les voisins du tampon de requête qui ne sont ni déjà placés ni déjà en attente.
+     *
+     * @return La nouvelle fin de file.
+     */
+    private int enqueueNeighbors(int[] labels, int tail) {
+        for (int i = 0; i < neighbors.size(); i++) {
+            int neighborIndex = neighbors.get(i);
+            if (labels[neighborIndex] <= 0 && !queued.get(neighborIndex)) {
+                queued.set(neighborIndex);
+                queue[tail++] = neighborIndex;
             }
         }
-        return neighbors;
+        return tail;
     }
 
-    private double distance(double[] point1, double[] point2) {
-        double sum = 0;
-        for (int i = 0; i < point1.length; i++) {
-            double diff = point1[i] - point2[i];
-            sum += diff * diff;
+    /**
+     * Remplit le tampon de requête avec les voisins du point.
+     *
+     * @return Le nombre (ou le poids total) des voisins, point lui-même compris.
+     */
+    private double regionQuery(int pointIndex) {
+        index.rangeQuery(pointIndex, neighbors);
+        regionQueries++;
+        totalNeighbors += neighbors.size();
+        maxNeighbors = Math.max(maxNeighbors, neighbors.size());
+        if (weights == null) return neighbors.size();
+        double total = 0;
+        for (int i = 0; i < neighbors.size(); i++) {
+            total += weights[neighbors.get(i)];
         }
-        return Math.sqrt(sum);
+        return total;
     }
 }
@@ -1,8 +1,18 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
 /**
  * Classe pour détecter les écosystèmes en utilisant un algorithme de clustering.
+ * Un {@link MetricsListener} peut recevoir la durée de chaque étape et les mesures internes de l'algorithme.
  */
 public class EcosystemDetection {
     private ClusteringAlgorithm algorithm;
+    private MetricsListener metrics = MetricsListener.NONE;
 
     /**
      * Constructeur pour initialiser avec un algorithme de clustering.
@@ -13,6 +23,16 @@ public class EcosystemDetection {
         this.algorithm = algorithm;
     }
 
+    /**
+     * Méthode pour recevoir les mesures de la détection et de son algorithme.
+     *
+     * @param listener Le listener qui reçoit les mesures, ou {@link MetricsListener#NONE} pour n'en faire aucune.
+     */
+    public void setMetricsListener(MetricsListener listener) {
+        this.metrics = listener;
+        algorithm.setMetricsListener(listener);
+    }
+
     /**
      * Méthode pour détecter les écosystèmes dans les données fournies.
      *
@@ -20,6 +40,115 @@ public class EcosystemDetection {
      * @return Un tableau contenant les numéros de cluster pour chaque objet.
      */
     public int[] detectEcosystems(double[][] data) {
-        return algorithm.cluster(data);
+        return MetricsListener.measure(metrics, "clustering", () -> algorithm.cluster(data));
+    }
+
+    /**
+     * Méthode pour détecter les écosystèmes dans une matrice de points dense.
+     *
+     * @param points Les points, stockés dans un seul tableau.
+     * @return Un tableau contenant les numéros de cluster pour chaque objet.
+     */
+    public int[] detectEcosystems(PointMatrix points) {
+        return MetricsListener.measure(metrics, "clustering", () -> algorithm.cluster(points));
+    }
+
+    /**
+     * Méthode pour détecter les écosystèmes sur une source de points, sans matérialiser toutes les données
+     * si l'algorithme sait les lire au fil de l'eau.
+     *
+     * @param source La source des points (par exemple les pixels d'une image).
+     * @return Un tableau contenant les numéros de cluster pour chaque objet.
+     */
+    public int[] detectEcosystems(PointSource source) {
+        return MetricsListener.measure(metrics, "clustering", () -> algorithm.cluster(source));
+    }
+
+    /**
+     * Méthode pour détecter les écosystèmes à partir de l'histogramme des couleurs d'une image :
+     * seules les couleurs distinctes sont regroupées, pondérées par leur nombre de pixels.
+     *
+     * @param histogram L'histogramme des couleurs de l'image.
+     * @return Un tableau contenant les numéros de cluster pour chaque pixel.
+     */
+    public int[] detectEcosystems(ColorHistogram histogram) {
+        if (!(algorithm instanceof WeightedClusteringAlgorithm)) {
+            throw new IllegalArgumentException("L'algorithme ne gère pas les points pondérés : "
+                    + algorithm.getClass().getSimpleName());
+        }
+        WeightedClusteringAlgorithm weighted = (WeightedClusteringAlgorithm) algorithm;
+        PointMatrix points = MetricsListener.measure(metrics, "extraction", histogram::getPoints);
+        int[] colorLabels = MetricsListener.measure(metrics, "clustering",
+                () -> weighted.cluster(points, histogram.getCounts()));
+        return MetricsListener.measure(metrics, "report des étiquettes", () -> histogram.toPixelLabels(colorLabels));
+    }
+
+    /**
+     * Méthode pour détecter les écosystèmes de chaque biome, plusieurs biomes à la fois sur un nombre borné de threads.
+     * Chaque tâche crée son propre algorithme, car les algorithmes gardent un état pendant le clustering,
+     * et ne matérialise les positions de son biome que le temps du clustering.
+     *
+     * @param buckets Les pixels regroupés par biome.
+     * @param algorithms Fournit un nouvel algorithme de clustering pour chaque biome.
+     * @param threads Le nombre maximal de biomes traités en même temps.
+     * @return Pour chaque biome, le numéro de cluster de chacun de ses pixels, dans l'ordre de sa tranche.
+     */
+    public static int[][] detectEcosystems(BiomeBuckets buckets, Supplier<? extends ClusteringAlgorithm> algorithms,
+                                           int threads) {
+        return detectEcosystems(buckets, algorithms, threads, MetricsListener.NONE);
+    }
+
+    /**
+     * Méthode pour détecter les écosystèmes de chaque biome en signalant les mesures au listener,
+     * qui doit accepter des appels de plusieurs threads. Les mesures de chaque biome passent par le scope
+     * "biome n" du listener, pour ne pas se mélanger à celles des autres biomes ni à celles de la détection
+     * des biomes ; la durée totale est signalée comme l'étape "écosystèmes".
+     *
+     * @param buckets Les pixels regroupés par biome.
+     * @param algorithms Fournit un nouvel algorithme de clustering pour chaque biome.
+     * @param threads Le nombre maximal de biomes traités en même temps.
+     * @param listener Le listener qui reçoit les mesures.
+     * @return Pour chaque biome, le numéro de cluster de chacun de ses pixels, dans l'ordre de sa tranche.
+     */
+    public static int[][] detectEcosystems(BiomeBuckets buckets, Supplier<? extends ClusteringAlgorithm> algorithms,
+                                           int threads, MetricsListener listener) {
+        return MetricsListener.measure(listener, "écosystèmes", () -> clusterBiomes(buckets, algorithms, threads, listener));
+    }
+
+    private static int[][] clusterBiomes(BiomeBuckets buckets, Supplier<? extends ClusteringAlgorithm> algorithms,
+                                         int threads, MetricsListener listener) {
+        int k = buckets.size();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, k)));
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int b = 0; b < k; b++) {
+                int biome = b;
+                futures.add(executor.submit(() -> {
+                    if (buckets.count(biome) == 0) return new int[0];
+                    MetricsListener biomeListener = listener.scope("biome " + biome);
+                    ClusteringAlgorithm algorithm = algorithms.get();
+                    algorithm.setMetricsListener(biomeListener);
+                    PointMatrix positions = MetricsListener.measure(biomeListener, "extraction",
+                            () -> buckets.getPositions(biome));
+                    return MetricsListener.measure(biomeListener, "clustering", () -> algorithm.cluster(positions));
+                }));
+            }
+
+            int[][] ecosystems = new int[k][];
+            for (int b = 0; b < k; b++) {
+                ecosystems[b] = futures.get(b).get();
+            }
+            return ecosystems;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Détection des écosystèmes interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 }
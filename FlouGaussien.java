@@ -2,68 +2,69 @@ import java.awt.image.BufferedImage;
 
 /**
  * Classe pour appliquer un flou gaussien sur une image.
+ * Le noyau gaussien 2D étant le produit de deux noyaux 1D, le flou est appliqué en deux passes
+ * (horizontale puis verticale) : k opérations par pixel et par canal au lieu de k². Les bandes de lignes de l'image
+ * sont traitées en parallèle par {@link Convolution}.
  */
 public class FlouGaussien {
+    /**
+     * Moteur de convolution partagé, sur le pool commun.
+     */
+    private static final Convolution CONVOLUTION = new Convolution();
 
     /**
-     * Applique un flou gaussien sur une image.
+     * Applique un flou gaussien sur une image, avec un écart-type égal au tiers de la taille du noyau.
      *
      * @param image L'image à flouter.
      * @param blurLevel Le niveau de flou gaussien (taille du noyau).
      * @return L'image floutée.
      */
     public static BufferedImage applyGaussianBlur(BufferedImage image, int blurLevel) {
+        return applyGaussianBlur(image, blurLevel, blurLevel / 3.0f);
+    }
+
+    /**
+     * Applique un flou gaussien sur une image. Les pixels hors de l'image sont remplacés par le pixel du bord le plus proche.
+     *
+     * @param image L'image à flouter.
+     * @param blurLevel Le niveau de flou gaussien (taille du noyau).
+     * @param sigma L'écart-type de la gaussienne.
+     * @return L'image floutée.
+     */
+    public static BufferedImage applyGaussianBlur(BufferedImage image, int blurLevel, float sigma) {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage blurredImage = new BufferedImage(width, height, image.getType());
-
-        // Générer le filtre gaussien basé sur le niveau de flou
-        float[] filter = generateGaussianKernel(blurLevel);
+        PixelBuffer blurredImage = new PixelBuffer(width, height);
 
+        // Générer le filtre gaussien 1D basé sur le niveau de flou
         int offset = blurLevel / 2;
-        for (int y = offset; y < height - offset; y++) {
-            for (int x = offset; x < width - offset; x++) {
-                float r = 0, g = 0, b = 0;
-                for (int j = -offset; j <= offset; j++) {
-                    for (int i = -offset; i <= offset; i++) {
-                        int rgb = image.getRGB(x + i, y + j);
-                        r += ((rgb >> 16) & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                        g += ((rgb >> 8) & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                        b += (rgb & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                    }
-                }
+        float[] filter = generateGaussianKernel(offset, sigma);
 
-                int newR = Math.min(Math.max((int) r, 0), 255);
-                int newG = Math.min(Math.max((int) g, 0), 255);
-                int newB = Math.min(Math.max((int) b, 0), 255);
-                int newRGB = (newR << 16) | (newG << 8) | newB;
+        int[] pixels = PixelBuffer.of(image).getPixels();
+        CONVOLUTION.separable(pixels, blurredImage.getPixels(), width, height, filter);
 
-                blurredImage.setRGB(x, y, newRGB);
-            }
-        }
-        return blurredImage;
+        return blurredImage.toImage();
     }
 
     /**
-     * Génère un noyau gaussien basé sur l'écart-type et la taille du noyau.
+     * Génère un noyau gaussien 1D normalisé.
      *
-     * @param size La taille du noyau de convolution.
+     * @param radius Le rayon du noyau (taille 2 * radius + 1).
+     * @param sigma L'écart-type de la gaussienne.
      * @return Le noyau gaussien normalisé.
      */
-    private static float[] generateGaussianKernel(int size) {
-        float[] kernel = new float[size * size];
-        int center = size / 2;
-        float sigma = size / 3.0f;
+    private static float[] generateGaussianKernel(int radius, float sigma) {
+        float[] kernel = new float[2 * radius + 1];
         float sum = 0;
+        if (sigma <= 0) {
+            kernel[radius] = 1;
+            return kernel;
+        }
 
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                int dx = x - center;
-                int dy = y - center;
-                float value = (float) Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma)) / (2 * (float) Math.PI * sigma * sigma);
-                kernel[y * size + x] = value;
-                sum += value;
-            }
+        for (int x = -radius; x <= radius; x++) {
+            float value = (float) Math.exp(-(x * x) / (2 * sigma * sigma));
+            kernel[x + radius] = value;
+            sum += value;
         }
 
         for (int i = 0; i < kernel.length; i++) {
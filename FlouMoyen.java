@@ -2,8 +2,15 @@ import java.awt.image.BufferedImage;
 
 /**
  * Classe pour appliquer un flou par moyenne sur une image.
+ * Les sommes de la fenêtre sont glissantes (une colonne entre, une colonne sort), horizontalement
+ * puis verticalement : le coût par pixel ne dépend pas du niveau de flou. Les bandes de lignes de l'image sont traitées
+ * en parallèle par {@link Convolution}.
  */
 public class FlouMoyen {
+    /**
+     * Moteur de convolution partagé, sur le pool commun.
+     */
+    private static final Convolution CONVOLUTION = new Convolution();
 
     /**
      * Méthode pour appliquer un flou par moyenne sur une image.
@@ -13,38 +20,38 @@ public class FlouMoyen {
      * @return L'image floutée.
      */
     public static BufferedImage applyMeanBlur(BufferedImage image, int blurLevel) {
+        return applyMeanBlur(image, blurLevel, 1);
+    }
+
+    /**
+     * Méthode pour appliquer plusieurs flous par moyenne successifs sur une image.
+     * Trois passes donnent une bonne approximation d'un flou gaussien, pour un coût encore indépendant du niveau de flou.
+     * Les pixels hors de l'image sont remplacés par le pixel du bord le plus proche.
+     *
+     * @param image L'image à flouter.
+     * @param blurLevel Le niveau de flou par moyenne de chaque passe.
+     * @param passes Le nombre de passes.
+     * @return L'image floutée.
+     */
+    public static BufferedImage applyMeanBlur(BufferedImage image, int blurLevel, int passes) {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage blurredImage = new BufferedImage(width, height, image.getType());
+        PixelBuffer blurredImage = new PixelBuffer(width, height);
 
-        // Créer un filtre de taille blurLevel x blurLevel pour le flou par moyenne
-        int filterSize = blurLevel * blurLevel;
-        float[] filter = new float[filterSize];
-        for (int i = 0; i < filterSize; i++) {
-            filter[i] = 1.0f / filterSize;
+        // Les passes alternent entre deux tableaux ; l'image d'origine n'est que lue
+        int[] pixels = PixelBuffer.of(image).getPixels();
+        int[] blurred = blurredImage.getPixels();
+        int[] spare = passes > 1 ? new int[width * height] : null;
+        for (int pass = 0; pass < passes; pass++) {
+            // Les passes intermédiaires arrondissent au plus proche, pour ne pas assombrir l'image à chaque passe
+            CONVOLUTION.box(pixels, blurred, width, height, blurLevel / 2, pass < passes - 1);
+            pixels = blurred;
+            blurred = blurred == spare ? blurredImage.getPixels() : spare;
         }
-
-        int offset = blurLevel / 2;
-        for (int y = offset; y < height - offset; y++) {
-            for (int x = offset; x < width - offset; x++) {
-                float r = 0, g = 0, b = 0;
-                for (int j = -offset; j <= offset; j++) {
-                    for (int i = -offset; i <= offset; i++) {
-                        int rgb = image.getRGB(x + i, y + j);
-                        r += ((rgb >> 16) & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                        g += ((rgb >> 8) & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                        b += (rgb & 0xFF) * filter[(j + offset) * blurLevel + (i + offset)];
-                    }
-                }
-
-                int newR = Math.min(Math.max((int) r, 0), 255);
-                int newG = Math.min(Math.max((int) g, 0), 255);
-                int newB = Math.min(Math.max((int) b, 0), 255);
-                int newRGB = (newR << 16) | (newG << 8) | newB;
-
-                blurredImage.setRGB(x, y, newRGB);
-            }
+        if (pixels != blurredImage.getPixels()) {
+            System.arraycopy(pixels, 0, blurredImage.getPixels(), 0, pixels.length);
         }
-        return blurredImage;
+
+        return blurredImage.toImage();
     }
 }
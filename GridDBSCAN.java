@@ -0,0 +1,409 @@
+import java.util.Arrays;
+
+/**
+ * Classe implémentant un DBSCAN approché (ρ-approximation de Gan et Tao) sur une grille de cellules de côté eps / √d,
+ * pour les données de dimension 1 à 3 comme les couleurs normalisées.
+ * Deux points d'une même cellule sont toujours à moins de eps : une cellule dont le poids total atteint minPts
+ * est donc noyau tout entière, sans aucun calcul de distance. Pour les autres points, une cellule voisine
+ * entièrement à moins de (1 + ρ) eps compte en bloc et seules les cellules à cheval sur la sphère de rayon eps
+ * sont parcourues point par point. Les cellules noyaux voisines sont reliées par union-find.
+ * Le coût est linéaire en nombre de points, hors cellules ambiguës.
+ * <p>
+ * Garantie : tout cluster de {@link DBSCAN} de paramètres (eps, minPts) est contenu dans un cluster de ce résultat,
+ * et tout cluster de ce résultat est contenu dans un cluster de DBSCAN de paramètres ((1 + ρ) eps, minPts).
+ * Avec ρ = 0, les points noyaux et leurs clusters sont exactement ceux de DBSCAN. Comme pour DBSCAN, un point
+ * frontière voisin de plusieurs clusters peut être rattaché à l'un ou l'autre.
+ */
+public class GridDBSCAN implements WeightedClusteringAlgorithm {
+    /**
+     * Valeur de ρ par défaut, celle de l'article de Gan et Tao.
+     */
+    private static final double DEFAULT_RHO = 0.001;
+
+    /**
+     * Marge relative retirée du côté des cellules, pour que les arrondis ne portent pas leur diagonale au-delà de eps.
+     */
+    private static final double CELL_MARGIN = 1e-9;
+
+    private double eps;
+    private int minPts;
+    private double rho;
+
+    private PointMatrix points;
+    private double[] weights;
+    private int dimensions;
+    private double cellSize;
+    private double[] min;
+    private int[] cellsPerDimension;
+    private long[] cellKeys;
+    private int[] cellStart;
+    private int[] sortedPoints;
+    private double[] cellWeights;
+    /**
+     * Nombre de points noyaux de chaque cellule, rangés en tête de sa tranche de sortedPoints.
+     */
+    private int[] coreCounts;
+    private int[][] neighborCells;
+
+    /**
+     * Constructeur pour initialiser les paramètres de DBSCAN, avec ρ = 0.001.
+     *
+     * @param eps Le rayon de voisinage.
+     * @param minPts Le nombre minimum de points (ou poids total) pour former un cluster.
+     */
+    public GridDBSCAN(double eps, int minPts) {
+        this(eps, minPts, DEFAULT_RHO);
+    }
+
+    /**
+     * Constructeur complet.
+     *
+     * @param eps Le rayon de voisinage.
+     * @param minPts Le nombre minimum de points (ou poids total) pour former un cluster.
+     * @param rho La tolérance relative sur eps : plus elle est grande, plus de cellules sont comptées en bloc.
+     */
+    public GridDBSCAN(double eps, int minPts, double rho) {
+        if (!(eps > 0) || !(rho >= 0)) {
+            throw new IllegalArgumentException("eps doit être strictement positif et rho positif : " + eps + ", " + rho);
+        }
+        this.eps = eps;
+        this.minPts = minPts;
+        this.rho = rho;
+    }
+
+    @Override
+    public int[] cluster(double[][] data) {
+        return cluster(PointMatrix.of(data), null);
+    }
+
+    @Override
+    public int[] cluster(double[][] data, double[] weights) {
+        return cluster(PointMatrix.of(data), weights);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix points) {
+        return cluster(points, null);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix points, double[] weights) {
+        if (points.dimensions() > SpatialIndex.GRID_MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("GridDBSCAN est limité aux dimensions 1 à "
+                    + SpatialIndex.GRID_MAX_DIMENSIONS + " : " + points.dimensions());
+        }
+        this.points = points;
+        this.weights = weights;
+        int n = points.size();
+        int[] labels = new int[n];
+        if (n == 0) return labels;
+
+        buildCells();
+        markCorePoints();
+        ConcurrentUnionFind cells = connectCoreCells();
+
+        // Numéroter les clusters dans l'ordre de leur premier point noyau, comme DBSCAN
+        boolean[] core = new boolean[n];
+        int[] cellOfPoint = new int[n];
+        for (int c = 0; c < cellKeys.length; c++) {
+            for (int s = cellStart[c]; s < cellStart[c + 1]; s++) {
+                cellOfPoint[sortedPoints[s]] = c;
+                core[sortedPoints[s]] = s < cellStart[c] + coreCounts[c];
+            }
+        }
+        int[] clusterIds = new int[cellKeys.length];
+        int clusterId = 0;
+        for (int i = 0; i < n; i++) {
+            if (!core[i]) continue;
+            int root = cells.find(cellOfPoint[i]);
+            if (clusterIds[root] == 0) clusterIds[root] = ++clusterId;
+            labels[i] = clusterIds[root];
+        }
+
+        // Rattacher chaque point non noyau au cluster d'un point noyau à moins de eps, sinon c'est du bruit
+        for (int i = 0; i < n; i++) {
+            if (core[i]) continue;
+            int borderCell = findCoreNeighborCell(i, cellOfPoint[i]);
+            labels[i] = borderCell < 0 ? -1 : clusterIds[cells.find(borderCell)];
+        }
+
+        this.points = null;
+        this.weights = null;
+        cellKeys = null;
+        cellStart = null;
+        sortedPoints = null;
+        cellWeights = null;
+        coreCounts = null;
+        neighborCells = null;
+        return labels;
+    }
+
+    /**
+     * Trie les points par cellule et calcule, pour chaque cellule non vide, son poids et ses cellules voisines.
+     */
+    private void buildCells() {
+        int n = points.size();
+        dimensions = points.dimensions();
+        cellSize = eps / Math.sqrt(dimensions) * (1 - CELL_MARGIN);
+        min = new double[dimensions];
+        cellsPerDimension = new int[dimensions];
+        long totalCells = 1;
+        for (int d = 0; d < dimensions; d++) {
+            double low = Double.POSITIVE_INFINITY;
+            double high = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                low = Math.min(low, points.get(i, d));
+                high = Math.max(high, points.get(i, d));
+            }
+            double span = (high - low) / cellSize;
+            if (!(span < Integer.MAX_VALUE)) {
+                throw new IllegalArgumentException("eps est trop petit pour l'étendue des données : " + eps);
+            }
+            min[d] = low;
+            cellsPerDimension[d] = (int) span + 1;
+            totalCells *= cellsPerDimension[d];
+            if (totalCells > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("eps est trop petit pour l'étendue des données : " + eps);
+            }
+        }
+
+        // Trier les couples (cellule, point) : les points d'une même cellule deviennent contigus
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            keyed[i] = ((long) cellOf(i) << 32) | i;
+        }
+        Arrays.sort(keyed);
+
+        sortedPoints = new int[n];
+        IntList starts = new IntList(1024);
+        long[] keys = new long[n];
+        int cellCount = 0;
+        for (int s = 0; s < n; s++) {
+            long key = keyed[s] >>> 32;
+            sortedPoints[s] = (int) keyed[s];
+            if (s == 0 || key != keys[cellCount - 1]) {
+                keys[cellCount++] = key;
+                starts.add(s);
+            }
+        }
+        cellKeys = Arrays.copyOf(keys, cellCount);
+        cellStart = new int[cellCount + 1];
+        for (int c = 0; c < cellCount; c++) {
+            cellStart[c] = starts.get(c);
+        }
+        cellStart[cellCount] = n;
+
+        cellWeights = new double[cellCount];
+        for (int c = 0; c < cellCount; c++) {
+            for (int s = cellStart[c]; s < cellStart[c + 1]; s++) {
+                cellWeights[c] += weight(sortedPoints[s]);
+            }
+        }
+
+        // Cellules voisines : celles dont la distance minimale à la cellule ne dépasse pas eps
+        int[][] offsets = neighborOffsets();
+        neighborCells = new int[cellCount][];
+        int[] coordinates = new int[dimensions];
+        IntList neighbors = new IntList(offsets.length);
+        for (int c = 0; c < cellCount; c++) {
+            decode(cellKeys[c], coordinates);
+            neighbors.clear();
+            for (int[] offset : offsets) {
+                long key = 0;
+                boolean inside = true;
+                for (int d = dimensions - 1; d >= 0 && inside; d--) {
+                    int coordinate = coordinates[d] + offset[d];
+                    inside = coordinate >= 0 && coordinate < cellsPerDimension[d];
+                    key = key * cellsPerDimension[d] + coordinate;
+                }
+                if (!inside) continue;
+                int neighbor = Arrays.binarySearch(cellKeys, key);
+                if (neighbor >= 0 && neighbor != c) neighbors.add(neighbor);
+            }
+            int[] list = new int[neighbors.size()];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = neighbors.get(i);
+            }
+            neighborCells[c] = list;
+        }
+    }
+
+    /**
+     * Décalages (en cellules) des cellules qui peuvent contenir un point à moins de eps d'un point de la cellule centrale.
+     */
+    private int[][] neighborOffsets() {
+        int reach = (int) Math.ceil(eps / cellSize);
+        int side = 2 * reach + 1;
+        int total = 1;
+        for (int d = 0; d < dimensions; d++) {
+            total *= side;
+        }
+        IntList kept = new IntList(total);
+        for (int o = 0; o < total; o++) {
+            double gap = 0;
+            int rest = o;
+            for (int d = 0; d < dimensions; d++) {
+                int offset = rest % side - reach;
+                rest /= side;
+                int cellsBetween = Math.max(Math.abs(offset) - 1, 0);
+                gap += (double) cellsBetween * cellsBetween;
+            }
+            if (Math.sqrt(gap) * cellSize <= eps) kept.add(o);
+        }
+
+        int[][] offsets = new int[kept.size()][dimensions];
+        for (int i = 0; i < kept.size(); i++) {
+            int rest = kept.get(i);
+            for (int d = 0; d < dimensions; d++) {
+                offsets[i][d] = rest % side - reach;
+                rest /= side;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Détermine les points noyaux et les range en tête de la tranche de leur cellule.
+     */
+    private void markCorePoints() {
+        coreCounts = new int[cellKeys.length];
+        for (int c = 0; c < cellKeys.length; c++) {
+            int start = cellStart[c];
+            int end = cellStart[c + 1];
+            if (cellWeights[c] >= minPts) {
+                coreCounts[c] = end - start; // Cellule dense : tous ses points sont noyaux
+                continue;
+            }
+            int coreEnd = start;
+            for (int s = start; s < end; s++) {
+                int point = sortedPoints[s];
+                if (isCore(point, c)) {
+                    sortedPoints[s] = sortedPoints[coreEnd];
+                    sortedPoints[coreEnd++] = point;
+                }
+            }
+            coreCounts[c] = coreEnd - start;
+        }
+    }
+
+    /**
+     * Compte le poids des voisins d'un point d'une cellule peu dense, à ρ près : une cellule voisine entièrement
+     * à moins de (1 + ρ) eps compte en bloc, une cellule entièrement au-delà de eps est ignorée.
+     */
+    private boolean isCore(int point, int cell) {
+        double total = cellWeights[cell];
+        double approximateEps = (1 + rho) * eps;
+        for (int neighbor : neighborCells[cell]) {
+            if (total >= minPts) return true;
+            if (minDistance(point, neighbor) > eps) continue;
+            if (maxDistance(point, neighbor) <= approximateEps) {
+                total += cellWeights[neighbor];
+                continue;
+            }
+            for (int s = cellStart[neighbor]; s < cellStart[neighbor + 1]; s++) {
+                int candidate = sortedPoints[s];
+                if (points.distance(point, candidate) <= eps) total += weight(candidate);
+            }
+        }
+        return total >= minPts;
+    }
+
+    /**
+     * Relie les cellules noyaux voisines qui contiennent deux points noyaux à moins de eps l'un de l'autre
+     * (ou dont tous les points noyaux sont à moins de (1 + ρ) eps d'un point noyau de l'autre).
+     */
+    private ConcurrentUnionFind connectCoreCells() {
+        ConcurrentUnionFind cells = new ConcurrentUnionFind(cellKeys.length);
+        double approximateEps = (1 + rho) * eps;
+        for (int a = 0; a < cellKeys.length; a++) {
+            if (coreCounts[a] == 0) continue;
+            for (int b : neighborCells[a]) {
+                if (b < a || coreCounts[b] == 0 || cells.find(a) == cells.find(b)) continue;
+                connect:
+                for (int s = cellStart[a]; s < cellStart[a] + coreCounts[a]; s++) {
+                    int p = sortedPoints[s];
+                    if (minDistance(p, b) > eps) continue;
+                    if (maxDistance(p, b) <= approximateEps) {
+                        cells.union(a, b);
+                        break;
+                    }
+                    for (int t = cellStart[b]; t < cellStart[b] + coreCounts[b]; t++) {
+                        if (points.distance(p, sortedPoints[t]) <= eps) {
+                            cells.union(a, b);
+                            break connect;
+                        }
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * @return Une cellule contenant un point noyau à moins de eps du point, ou -1 s'il n'y en a pas.
+     */
+    private int findCoreNeighborCell(int point, int cell) {
+        if (coreCounts[cell] > 0) return cell; // Même cellule : à moins de eps
+        for (int neighbor : neighborCells[cell]) {
+            if (coreCounts[neighbor] == 0 || minDistance(point, neighbor) > eps) continue;
+            for (int s = cellStart[neighbor]; s < cellStart[neighbor] + coreCounts[neighbor]; s++) {
+                if (points.distance(point, sortedPoints[s]) <= eps) return neighbor;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Distance d'un point au bord le plus proche d'une cellule.
+     */
+    private double minDistance(int point, int cell) {
+        long key = cellKeys[cell];
+        double sum = 0;
+        for (int d = 0; d < dimensions; d++) {
+            int coordinate = (int) (key % cellsPerDimension[d]);
+            key /= cellsPerDimension[d];
+            double low = min[d] + coordinate * cellSize;
+            double value = points.get(point, d);
+            double gap = Math.max(Math.max(low - value, value - (low + cellSize)), 0);
+            sum += gap * gap;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Distance d'un point au coin le plus éloigné d'une cellule.
+     */
+    private double maxDistance(int point, int cell) {
+        long key = cellKeys[cell];
+        double sum = 0;
+        for (int d = 0; d < dimensions; d++) {
+            int coordinate = (int) (key % cellsPerDimension[d]);
+            key /= cellsPerDimension[d];
+            double low = min[d] + coordinate * cellSize;
+            double value = points.get(point, d);
+            double gap = Math.max(Math.abs(value - low), Math.abs(low + cellSize - value));
+            sum += gap * gap;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private int cellOf(int point) {
+        long key = 0;
+        for (int d = dimensions - 1; d >= 0; d--) {
+            int coordinate = (int) ((points.get(point, d) - min[d]) / cellSize);
+            key = key * cellsPerDimension[d] + Math.min(coordinate, cellsPerDimension[d] - 1);
+        }
+        return (int) key;
+    }
+
+    private void decode(long key, int[] coordinates) {
+        for (int d = 0; d < dimensions; d++) {
+            coordinates[d] = (int) (key % cellsPerDimension[d]);
+            key /= cellsPerDimension[d];
+        }
+    }
+
+    private double weight(int point) {
+        return weights == null ? 1 : weights[point];
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Index spatial par grille uniforme de cellules de côté eps, pour les données de dimension 1 à 3.
+ * Les voisins d'un point se trouvent forcément dans sa cellule ou dans l'une des cellules adjacentes.
+ */
+public class GridIndex implements SpatialIndex {
+    /**
+     * Nombre maximal de cellules par point, pour borner la mémoire sur des données très dispersées.
+     */
+    private static final int MAX_CELLS_PER_POINT = 8;
+
+    /**
+     * Marge relative sur la taille des cellules, pour absorber les arrondis du calcul des coordonnées.
+     */
+    private static final double CELL_MARGIN = 1e-9;
+
+    private PointMatrix points;
+    private double eps;
+    private double cellSize;
+    private double[] min = new double[3];
+    private int[] cellsPerDimension = new int[] {1, 1, 1};
+    private int[] cellStart;
+    private int[] sortedPoints;
+
+    private GridIndex(PointMatrix points, double eps) {
+        this.points = points;
+        this.eps = eps;
+        this.cellSize = eps * (1 + CELL_MARGIN);
+    }
+
+    /**
+     * Construit la grille si elle reste de taille raisonnable.
+     *
+     * @param points Les points à indexer (dimension au plus 3).
+     * @param eps Le rayon de voisinage (strictement positif).
+     * @return La grille construite, ou null si le nombre de cellules serait trop grand.
+     */
+    public static GridIndex create(PointMatrix points, double eps) {
+        GridIndex grid = new GridIndex(points, eps);
+        int n = points.size();
+        int dimensions = points.dimensions();
+
+        double[] max = new double[3];
+        for (int d = 0; d < dimensions; d++) {
+            grid.min[d] = Double.POSITIVE_INFINITY;
+            max[d] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < dimensions; d++) {
+                grid.min[d] = Math.min(grid.min[d], points.get(i, d));
+                max[d] = Math.max(max[d], points.get(i, d));
+            }
+        }
+
+        long totalCells = 1;
+        long maxCells = (long) MAX_CELLS_PER_POINT * n;
+        for (int d = 0; d < dimensions; d++) {
+            double span = (max[d] - grid.min[d]) / grid.cellSize;
+            if (!(span < maxCells)) return null; // Aussi vrai pour NaN / infini
+            grid.cellsPerDimension[d] = (int) span + 1;
+            totalCells *= grid.cellsPerDimension[d];
+            if (totalCells > maxCells) return null;
+        }
+
+        // Tri par dénombrement des points selon leur cellule
+        int[] pointCells = new int[n];
+        grid.cellStart = new int[(int) totalCells + 1];
+        for (int i = 0; i < n; i++) {
+            pointCells[i] = grid.cellOf(i);
+            grid.cellStart[pointCells[i] + 1]++;
+        }
+        for (int c = 0; c < totalCells; c++) {
+            grid.cellStart[c + 1] += grid.cellStart[c];
+        }
+        grid.sortedPoints = new int[n];
+        int[] fill = new int[(int) totalCells];
+        for (int i = 0; i < n; i++) {
+            int cell = pointCells[i];
+            grid.sortedPoints[grid.cellStart[cell] + fill[cell]++] = i;
+        }
+        return grid;
+    }
+
+    @Override
+    public void rangeQuery(int pointIndex, IntList neighbors) {
+        neighbors.clear();
+        int cx = coordinate(pointIndex, 0);
+        int cy = coordinate(pointIndex, 1);
+        int cz = coordinate(pointIndex, 2);
+
+        for (int z = Math.max(cz - 1, 0); z <= Math.min(cz + 1, cellsPerDimension[2] - 1); z++) {
+            for (int y = Math.max(cy - 1, 0); y <= Math.min(cy + 1, cellsPerDimension[1] - 1); y++) {
+                int rowBase = (z * cellsPerDimension[1] + y) * cellsPerDimension[0];
+                int first = cellStart[rowBase + Math.max(cx - 1, 0)];
+                int last = cellStart[rowBase + Math.min(cx + 1, cellsPerDimension[0] - 1) + 1];
+                // Les cellules consécutives en x sont contiguës dans sortedPoints
+                for (int s = first; s < last; s++) {
+                    int candidate = sortedPoints[s];
+                    if (points.distance(pointIndex, candidate) <= eps) {
+                        neighbors.add(candidate);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellOf(int pointIndex) {
+        return (coordinate(pointIndex, 2) * cellsPerDimension[1] + coordinate(pointIndex, 1)) * cellsPerDimension[0]
+                + coordinate(pointIndex, 0);
+    }
+
+    private int coordinate(int pointIndex, int dimension) {
+        if (dimension >= points.dimensions()) return 0;
+        int c = (int) ((points.get(pointIndex, dimension) - min[dimension]) / cellSize);
+        return Math.min(c, cellsPerDimension[dimension] - 1);
+    }
+}
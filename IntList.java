@@ -0,0 +1,54 @@
+import java.util.Arrays;
+
+/**
+ * Liste d'entiers primitifs extensible, réutilisable d'un appel à l'autre sans boxing.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructeur pour initialiser une liste vide.
+     *
+     * @param initialCapacity La capacité initiale du tableau interne.
+     */
+    public IntList(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 4)];
+    }
+
+    /**
+     * Ajoute une valeur en fin de liste.
+     *
+     * @param value La valeur à ajouter.
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Retourne la valeur à l'index donné.
+     *
+     * @param index L'index de la valeur.
+     * @return La valeur stockée.
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return Le nombre de valeurs dans la liste.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vide la liste sans libérer le tableau interne.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Index spatial par KD-tree implicite, pour les données de dimension quelconque.
+ * L'arbre est stocké dans une permutation des index : le nœud d'un intervalle [lo, hi) est son point médian.
+ */
+public class KDTreeIndex implements SpatialIndex {
+    /**
+     * Taille en dessous de laquelle un intervalle est parcouru linéairement plutôt que subdivisé.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    private PointMatrix data;
+    private double eps;
+    private int[] points;
+    private int[] splitDimensions;
+
+    /**
+     * Constructeur pour construire l'arbre sur les données fournies.
+     *
+     * @param data Les points à indexer.
+     * @param eps Le rayon de voisinage.
+     */
+    public KDTreeIndex(PointMatrix data, double eps) {
+        this.data = data;
+        this.eps = eps;
+        int n = data.size();
+        this.points = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = i;
+        }
+        this.splitDimensions = new int[n];
+        build(0, n);
+    }
+
+    @Override
+    public void rangeQuery(int pointIndex, IntList neighbors) {
+        neighbors.clear();
+        search(pointIndex, 0, points.length, neighbors);
+    }
+
+    private void build(int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) return;
+
+        // Couper selon la dimension de plus grande étendue
+        int dimensions = data.dimensions();
+        int bestDimension = 0;
+        double bestSpread = -1;
+        for (int d = 0; d < dimensions; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double value = data.get(points[i], d);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                bestDimension = d;
+            }
+        }
+
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, bestDimension);
+        splitDimensions[mid] = bestDimension;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    /**
+     * Sélection rapide (Hoare) : place en position k l'élément de rang k selon la dimension donnée,
+     * avec les valeurs inférieures ou égales à gauche et supérieures ou égales à droite.
+     */
+    private void select(int left, int right, int k, int dimension) {
+        while (right > left) {
+            double pivot = data.get(points[(left + right) >>> 1], dimension);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (data.get(points[i], dimension) < pivot) i++;
+                while (data.get(points[j], dimension) > pivot) j--;
+                if (i <= j) {
+                    int tmp = points[i];
+                    points[i] = points[j];
+                    points[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void search(int query, int lo, int hi, IntList neighbors) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                if (data.distance(query, points[i]) <= eps) {
+                    neighbors.add(points[i]);
+                }
+            }
+            return;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        int dimension = splitDimensions[mid];
+        double split = data.get(points[mid], dimension);
+        double value = data.get(query, dimension);
+        if (data.distance(query, points[mid]) <= eps) {
+            neighbors.add(points[mid]);
+        }
+        if (value - eps <= split) {
+            search(query, lo, mid, neighbors);
+        }
+        if (value + eps >= split) {
+            search(query, mid + 1, hi, neighbors);
+        }
+    }
+}
@@ -1,11 +1,59 @@
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
 
 /**
  * Classe implémentant l'algorithme de clustering KMeans.
  */
-public class KMeans implements ClusteringAlgorithm {
+public class KMeans implements WeightedClusteringAlgorithm {
+    /**
+     * Taille des blocs de points : fixe, pour que le résultat ne dépende pas du nombre de threads.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * Marge relative appliquée aux bornes d'Elkan et de Hamerly : un centroid n'est écarté que s'il est
+     * strictement plus loin malgré les erreurs d'arrondi, pour garantir les mêmes assignations que Lloyd.
+     */
+    private static final double BOUND_TOLERANCE = 1e-9;
+
+    /**
+     * Nombre de passes de sur-échantillonnage de k-means||.
+     */
+    private static final int KMEANS_PARALLEL_ROUNDS = 5;
+
     private int k;
     private int maxIterations;
+    private KMeansStrategy strategy;
+    private KMeansInitialisation initialisation;
+    private long seed;
+    private double[] pointWeights;
+    /**
+     * Sommes cumulées des poids (weightPrefix[i] = poids des points 0 à i - 1), pour tirer un point pondéré
+     * par recherche dichotomique.
+     */
+    private double[] weightPrefix;
+    private int iterations;
+    private long distanceComputations;
+    private long distanceComputationsAvoided;
+    private MetricsListener metrics = MetricsListener.NONE;
+    /**
+     * Centroids imposés pour démarrer le prochain appel à cluster, ou null pour l'initialisation configurée.
+     */
+    private double[][] startCentroids;
+    /**
+     * Centroids et poids des clusters à la fin du dernier appel à cluster ou à update.
+     */
+    private double[][] centroids;
+    private double[] clusterWeights;
+    /**
+     * Vrai si le dernier appel à cluster était pondéré : update ne peut pas le prolonger.
+     */
+    private boolean lastRunWeighted;
 
     /**
      * Constructeur pour initialiser le nombre de clusters et le nombre maximal d'itérations.
@@ -14,62 +62,679 @@ public class KMeans implements ClusteringAlgorithm {
      * @param maxIterations Le nombre maximal d'itérations.
      */
     public KMeans(int k, int maxIterations) {
+        this(k, maxIterations, KMeansStrategy.LLOYD);
+    }
+
+    /**
+     * Constructeur pour initialiser le nombre de clusters, le nombre maximal d'itérations et la stratégie d'assignation.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     * @param strategy La stratégie d'assignation des points aux centroids.
+     */
+    public KMeans(int k, int maxIterations, KMeansStrategy strategy) {
+        this(k, maxIterations, strategy, KMeansInitialisation.RANDOM, new Random().nextLong());
+    }
+
+    /**
+     * Constructeur complet. À graine égale, deux exécutions donnent exactement le même résultat.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     * @param strategy La stratégie d'assignation des points aux centroids.
+     * @param initialisation La méthode de choix des centroids initiaux.
+     * @param seed La graine du générateur aléatoire.
+     */
+    public KMeans(int k, int maxIterations, KMeansStrategy strategy, KMeansInitialisation initialisation, long seed) {
         this.k = k;
         this.maxIterations = maxIterations;
+        this.strategy = strategy;
+        this.initialisation = initialisation;
+        this.seed = seed;
     }
 
     @Override
     public int[] cluster(double[][] data) {
-        int n = data.length;
+        return cluster(PointMatrix.of(data), null);
+    }
+
+    @Override
+    public int[] cluster(double[][] data, double[] weights) {
+        return cluster(PointMatrix.of(data), weights);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix data) {
+        return cluster(data, null);
+    }
+
+    @Override
+    public int[] cluster(PointMatrix data, double[] weights) {
+        pointWeights = weights;
+        int n = data.size();
+        if (weights != null) {
+            weightPrefix = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                weightPrefix[i + 1] = weightPrefix[i] + weights[i];
+            }
+        }
         int[] clusterAssignments = new int[n];
-        double[][] centroids = new double[k][data[0].length];
+        int chunkCount = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        double[][] centroids = initialCentroids(data, chunkCount);
 
-        Random rand = new Random();
-        for (int i = 0; i < k; i++) {
-            centroids[i] = data[rand.nextInt(n)];
+        Accumulator[] accumulators = new Accumulator[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            accumulators[c] = new Accumulator(k, data.dimensions());
         }
 
+        Bounds bounds = strategy == KMeansStrategy.LLOYD ? null : new Bounds(n, k, strategy);
         boolean changed = true;
-        int iterations = 0;
+        iterations = 0;
+        distanceComputations = 0;
+        double[] clusterCounts = new double[k];
 
         while (changed && iterations < maxIterations) {
             changed = false;
             iterations++;
 
-            // Assigner chaque point au cluster le plus proche
-            for (int i = 0; i < n; i++) {
-                int nearestCluster = getNearestCluster(data[i], centroids);
-                if (nearestCluster != clusterAssignments[i]) {
-                    clusterAssignments[i] = nearestCluster;
-                    changed = true;
-                }
+            // Assigner chaque point au cluster le plus proche et accumuler les sommes, bloc par bloc
+            double[][] currentCentroids = centroids;
+            boolean firstIteration = iterations == 1;
+            if (bounds != null) {
+                bounds.prepare(currentCentroids);
             }
+            forEachChunk(chunkCount, c -> {
+                Accumulator accumulator = accumulators[c];
+                accumulator.reset();
+                int end = Math.min(n, (c + 1) * CHUNK_SIZE);
+                for (int i = c * CHUNK_SIZE; i < end; i++) {
+                    int nearestCluster;
+                    if (bounds == null) {
+                        nearestCluster = getNearestCluster(data, i, currentCentroids);
+                        accumulator.distanceComputations += k;
+                    } else if (strategy == KMeansStrategy.HAMERLY) {
+                        nearestCluster = assignHamerly(data, i, currentCentroids, clusterAssignments[i], firstIteration, bounds, accumulator);
+                    } else {
+                        nearestCluster = assignElkan(data, i, currentCentroids, clusterAssignments[i], firstIteration, bounds, accumulator);
+                    }
+                    if (nearestCluster != clusterAssignments[i]) {
+                        clusterAssignments[i] = nearestCluster;
+                        accumulator.changed++;
+                    }
+                    accumulator.add(nearestCluster, data, i, weight(i));
+                }
+            });
 
-            // Recalculer les centroids des clusters
-            double[][] newCentroids = new double[k][data[0].length];
-            int[] counts = new int[k];
+            // Recalculer les centroids des clusters en réduisant les blocs dans un ordre fixe
+            double[][] newCentroids = new double[k][data.dimensions()];
+            double[] counts = new double[k];
+            int reassigned = 0;
+            long iterationDistanceComputations = 0;
 
-            for (int i = 0; i < n; i++) {
-                int cluster = clusterAssignments[i];
-                for (int j = 0; j < data[0].length; j++) {
-                    newCentroids[cluster][j] += data[i][j];
+            for (Accumulator accumulator : accumulators) {
+                changed |= accumulator.changed > 0;
+                reassigned += accumulator.changed;
+                iterationDistanceComputations += accumulator.distanceComputations;
+                for (int i = 0; i < k; i++) {
+                    for (int j = 0; j < data.dimensions(); j++) {
+                        newCentroids[i][j] += accumulator.sums[i][j];
+                    }
+                    counts[i] += accumulator.counts[i];
                 }
-                counts[cluster]++;
             }
 
             for (int i = 0; i < k; i++) {
                 if (counts[i] == 0) continue;
-                for (int j = 0; j < data[0].length; j++) {
+                for (int j = 0; j < data.dimensions(); j++) {
                     newCentroids[i][j] /= counts[i];
                 }
             }
 
+            distanceComputations += iterationDistanceComputations;
+
+            if (bounds != null) {
+                bounds.recordDrift(centroids, newCentroids);
+            }
+            if (metrics != MetricsListener.NONE) {
+                metrics.kmeansIteration("kmeans", iterations, reassigned, maxShift(centroids, newCentroids, counts),
+                        iterationDistanceComputations);
+            }
             centroids = newCentroids;
+            clusterCounts = counts;
         }
 
+        // Les centroids sont les moyennes des clusters finaux : on les garde pour un démarrage à chaud ou un update
+        this.centroids = centroids;
+        this.clusterWeights = clusterCounts;
+        lastRunWeighted = weights != null;
+
+        distanceComputationsAvoided = (long) iterations * n * k - distanceComputations;
+        pointWeights = null;
+        weightPrefix = null;
         return clusterAssignments;
     }
 
+    @Override
+    public void setMetricsListener(MetricsListener listener) {
+        this.metrics = listener;
+    }
+
+    /**
+     * Méthode pour imposer les centroids initiaux des prochains appels à cluster, par exemple ceux obtenus sur
+     * l'image précédente d'une même planète : l'algorithme part alors d'une solution proche et converge en peu d'itérations.
+     *
+     * @param initialCentroids Les k centroids initiaux (copiés), ou null pour revenir à l'initialisation configurée.
+     */
+    public void setInitialCentroids(double[][] initialCentroids) {
+        if (initialCentroids != null && initialCentroids.length != k) {
+            throw new IllegalArgumentException("Il faut " + k + " centroids initiaux : " + initialCentroids.length);
+        }
+        startCentroids = initialCentroids == null ? null : copy(initialCentroids);
+    }
+
+    /**
+     * @return Une copie des centroids obtenus lors du dernier appel à cluster ou à update, ou null avant le premier appel.
+     */
+    public double[][] getCentroids() {
+        return centroids == null ? null : copy(centroids);
+    }
+
+    /**
+     * Mode incrémental pour une suite d'images de la même planète : seuls les pixels dont la couleur a changé
+     * de plus de threshold depuis l'image précédente sont réassignés, en partant des centroids du dernier appel.
+     * Les sommes des clusters sont déduites de ces centroids et mises à jour avec les seuls pixels modifiés :
+     * chaque itération ne coûte que k distances par pixel modifié.
+     * <p>
+     * previousData doit être les données du dernier appel (non pondéré) à cluster ou à update, et data les mêmes pixels
+     * dans l'image suivante. Les pixels inchangés gardent leur cluster même si les centroids se déplacent :
+     * si beaucoup de pixels changent, un appel à cluster démarré avec {@link #setInitialCentroids} reste préférable.
+     *
+     * @param previousData Les points de l'image précédente.
+     * @param data Les points de la nouvelle image, dans le même ordre.
+     * @param previousAssignments Les clusters renvoyés par le dernier appel.
+     * @param threshold La distance en dessous de laquelle un pixel est considéré comme inchangé.
+     * @return Le cluster de chaque point de la nouvelle image.
+     * @throws IllegalStateException Si aucun appel à cluster n'a eu lieu, ou si le dernier était pondéré.
+     * @throws IllegalArgumentException Si les deux images et les clusters n'ont pas le même nombre de points,
+     *                                  si leur dimension diffère de celle des centroids, ou si un cluster n'existe pas.
+     */
+    public int[] update(PointMatrix previousData, PointMatrix data, int[] previousAssignments, double threshold) {
+        if (centroids == null) {
+            throw new IllegalStateException("update doit suivre un appel à cluster");
+        }
+        if (lastRunWeighted) {
+            throw new IllegalStateException("update ne peut pas suivre un appel pondéré à cluster : "
+                    + "les poids des clusters ne correspondent pas à un pixel par point");
+        }
+        int n = data.size();
+        int dimensions = data.dimensions();
+        if (previousData.size() != n || previousAssignments.length != n) {
+            throw new IllegalArgumentException("Il faut autant de points dans les deux images et de clusters : "
+                    + previousData.size() + ", " + n + " et " + previousAssignments.length);
+        }
+        if (previousData.dimensions() != dimensions || centroids[0].length != dimensions) {
+            throw new IllegalArgumentException("Les points doivent être de la dimension des centroids ("
+                    + centroids[0].length + ") : " + previousData.dimensions() + " et " + dimensions);
+        }
+        double[][] current = copy(centroids);
+        double[] counts = clusterWeights.clone();
+        double[][] sums = new double[k][dimensions];
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < dimensions; j++) {
+                sums[i][j] = current[i][j] * counts[i];
+            }
+        }
+
+        // Retirer des sommes les pixels modifiés, qui seront réassignés
+        int[] assignments = previousAssignments.clone();
+        IntList changedPoints = new IntList(1024);
+        double squaredThreshold = threshold * threshold;
+        for (int p = 0; p < n; p++) {
+            if (assignments[p] < 0 || assignments[p] >= k) {
+                throw new IllegalArgumentException("Cluster inexistant pour le point " + p + " : " + assignments[p]);
+            }
+            double squaredDistance = 0;
+            for (int j = 0; j < dimensions; j++) {
+                double diff = data.get(p, j) - previousData.get(p, j);
+                squaredDistance += diff * diff;
+            }
+            if (squaredDistance <= squaredThreshold) continue;
+            changedPoints.add(p);
+            double[] sum = sums[assignments[p]];
+            for (int j = 0; j < dimensions; j++) {
+                sum[j] -= previousData.get(p, j);
+            }
+            counts[assignments[p]]--;
+        }
+
+        iterations = 0;
+        distanceComputations = 0;
+        boolean changed = changedPoints.size() > 0;
+        while (changed && iterations < maxIterations) {
+            changed = false;
+            iterations++;
+            int reassigned = 0;
+
+            for (int c = 0; c < changedPoints.size(); c++) {
+                int p = changedPoints.get(c);
+                int nearestCluster = getNearestCluster(data, p, current);
+                if (iterations > 1 && nearestCluster == assignments[p]) continue;
+
+                if (iterations > 1) {
+                    double[] sum = sums[assignments[p]];
+                    for (int j = 0; j < dimensions; j++) {
+                        sum[j] -= data.get(p, j);
+                    }
+                    counts[assignments[p]]--;
+                    reassigned++;
+                }
+                double[] sum = sums[nearestCluster];
+                for (int j = 0; j < dimensions; j++) {
+                    sum[j] += data.get(p, j);
+                }
+                counts[nearestCluster]++;
+                assignments[p] = nearestCluster;
+                changed = true;
+            }
+            distanceComputations += (long) changedPoints.size() * k;
+
+            // Un cluster vidé garde son centroid précédent
+            double[][] newCentroids = copy(current);
+            for (int i = 0; i < k; i++) {
+                if (counts[i] <= 0) continue;
+                for (int j = 0; j < dimensions; j++) {
+                    newCentroids[i][j] = sums[i][j] / counts[i];
+                }
+            }
+            if (metrics != MetricsListener.NONE) {
+                metrics.kmeansIteration("kmeans update", iterations, iterations == 1 ? changedPoints.size() : reassigned,
+                        maxShift(current, newCentroids, counts), (long) changedPoints.size() * k);
+            }
+            current = newCentroids;
+        }
+
+        distanceComputationsAvoided = (long) Math.max(iterations, 1) * n * k - distanceComputations;
+        centroids = current;
+        clusterWeights = counts;
+        return assignments;
+    }
+
+    /**
+     * @return Le nombre d'itérations effectuées lors du dernier appel à cluster.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Le nombre de distances point-centroid calculées lors du dernier appel à cluster.
+     */
+    public long getDistanceComputations() {
+        return distanceComputations;
+    }
+
+    /**
+     * @return Le nombre de distances point-centroid que l'algorithme de Lloyd aurait calculées en plus
+     * lors du dernier appel à cluster.
+     */
+    public long getDistanceComputationsAvoided() {
+        return distanceComputationsAvoided;
+    }
+
+    /**
+     * Choisit les centroids initiaux selon la méthode configurée. Les centroids sont des copies des points.
+     */
+    private double[][] initialCentroids(PointMatrix data, int chunkCount) {
+        if (startCentroids != null) {
+            if (startCentroids[0].length != data.dimensions()) {
+                throw new IllegalArgumentException("Les centroids initiaux n'ont pas la dimension des points : "
+                        + startCentroids[0].length + " au lieu de " + data.dimensions());
+            }
+            return copy(startCentroids);
+        }
+        Random rand = new Random(seed);
+        switch (initialisation) {
+            case KMEANS_PLUS_PLUS:
+                return kMeansPlusPlus(data, chunkCount, rand);
+            case KMEANS_PARALLEL:
+                return kMeansParallel(data, chunkCount, rand);
+            default:
+                return randomCentroids(data, rand);
+        }
+    }
+
+    /**
+     * Tire k points distincts (si les données en contiennent assez) uniformément, ou proportionnellement
+     * à leur poids si les points sont pondérés.
+     */
+    private double[][] randomCentroids(PointMatrix data, Random rand) {
+        int n = data.size();
+        double[][] centroids = new double[k][];
+        if (pointWeights != null) {
+            TreeSet<Integer> picked = new TreeSet<>();
+            for (int i = 0; i < k; i++) {
+                int index = picked.size() < n ? pickDistinctPoint(n, picked, rand) : pickPoint(n, rand);
+                picked.add(index);
+                centroids[i] = data.getRow(index);
+            }
+            return centroids;
+        }
+
+        Set<Integer> picked = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            int index = pickPoint(n, rand);
+            while (picked.size() < n && !picked.add(index)) {
+                index = pickPoint(n, rand);
+            }
+            centroids[i] = data.getRow(index);
+        }
+        return centroids;
+    }
+
+    /**
+     * Tire un point pondéré parmi ceux qui n'ont pas encore été tirés, sans rejet : une couleur qui porte
+     * presque tout le poids d'un histogramme ne fait pas boucler le tirage. La position tirée parmi le poids restant
+     * est décalée du poids de chaque point déjà tiré qui la précède.
+     */
+    private int pickDistinctPoint(int n, TreeSet<Integer> picked, Random rand) {
+        double remaining = weightPrefix[n];
+        for (int index : picked) {
+            remaining -= pointWeights[index];
+        }
+        if (remaining > 0) {
+            double target = rand.nextDouble() * remaining;
+            for (int index : picked) {
+                if (weightPrefix[index] > target) break;
+                target += pointWeights[index];
+            }
+            // Arrondis : avancer jusqu'au prochain point disponible de poids non nul
+            int index = searchWeight(target, n);
+            for (int step = 0; step < n; step++, index = (index + 1) % n) {
+                if (!picked.contains(index) && pointWeights[index] > 0) return index;
+            }
+        }
+
+        // Il ne reste que des points de poids nul : tirage uniforme parmi eux
+        int index = rand.nextInt(n);
+        while (picked.contains(index)) {
+            index = (index + 1) % n;
+        }
+        return index;
+    }
+
+    /**
+     * Initialisation k-means++ : chaque passe met à jour, bloc par bloc, le carré de la distance
+     * de chaque point au centroid le plus proche, puis tire le centroid suivant proportionnellement.
+     */
+    private double[][] kMeansPlusPlus(PointMatrix data, int chunkCount, Random rand) {
+        int n = data.size();
+        double[][] centroids = new double[k][];
+        double[] minDist = new double[n];
+        double[] chunkSums = new double[chunkCount];
+        Arrays.fill(minDist, Double.MAX_VALUE);
+
+        centroids[0] = data.getRow(pickPoint(n, rand));
+        for (int j = 1; j < k; j++) {
+            double[] centroid = centroids[j - 1];
+            forEachChunk(chunkCount, c -> {
+                double sum = 0;
+                int end = Math.min(n, (c + 1) * CHUNK_SIZE);
+                for (int i = c * CHUNK_SIZE; i < end; i++) {
+                    minDist[i] = Math.min(minDist[i], data.squaredDistance(i, centroid));
+                    sum += weight(i) * minDist[i];
+                }
+                chunkSums[c] = sum;
+            });
+            centroids[j] = data.getRow(sampleProportional(minDist, chunkSums, rand));
+        }
+        return centroids;
+    }
+
+    /**
+     * Initialisation k-means|| : chaque passe retient indépendamment chaque point avec une probabilité
+     * proportionnelle au carré de sa distance aux candidats, puis les candidats, pondérés par le nombre
+     * de points dont ils sont les plus proches, sont réduits à k centroids par k-means++.
+     */
+    private double[][] kMeansParallel(PointMatrix data, int chunkCount, Random rand) {
+        int n = data.size();
+        double oversampling = 2.0 * k;
+        double[] minDist = new double[n];
+        int[] nearest = new int[n];
+        double[] chunkSums = new double[chunkCount];
+        IntList[] chunkSelections = new IntList[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunkSelections[c] = new IntList(16);
+        }
+        Arrays.fill(minDist, Double.MAX_VALUE);
+        long roundSeed = rand.nextLong();
+
+        IntList candidates = new IntList(1 + KMEANS_PARALLEL_ROUNDS * 2 * k);
+        candidates.add(pickPoint(n, rand));
+        int firstNew = 0;
+        for (int round = 0; ; round++) {
+            // Distance aux candidats ajoutés à la passe précédente
+            int from = firstNew;
+            double[][] newCandidates = new double[candidates.size() - from][];
+            for (int q = 0; q < newCandidates.length; q++) {
+                newCandidates[q] = data.getRow(candidates.get(from + q));
+            }
+            forEachChunk(chunkCount, c -> {
+                double sum = 0;
+                int end = Math.min(n, (c + 1) * CHUNK_SIZE);
+                for (int i = c * CHUNK_SIZE; i < end; i++) {
+                    for (int q = 0; q < newCandidates.length; q++) {
+                        double dist = data.squaredDistance(i, newCandidates[q]);
+                        if (dist < minDist[i]) {
+                            minDist[i] = dist;
+                            nearest[i] = from + q;
+                        }
+                    }
+                    sum += weight(i) * minDist[i];
+                }
+                chunkSums[c] = sum;
+            });
+            double total = 0;
+            for (double chunkSum : chunkSums) {
+                total += chunkSum;
+            }
+            if (round == KMEANS_PARALLEL_ROUNDS || total == 0) break;
+
+            // Sur-échantillonnage : un générateur par bloc, pour un tirage indépendant du nombre de threads
+            int currentRound = round;
+            double currentTotal = total;
+            forEachChunk(chunkCount, c -> {
+                SplittableRandom chunkRand = new SplittableRandom(roundSeed ^ (currentRound * 0x9E3779B97F4A7C15L + c));
+                IntList selection = chunkSelections[c];
+                selection.clear();
+                int end = Math.min(n, (c + 1) * CHUNK_SIZE);
+                for (int i = c * CHUNK_SIZE; i < end; i++) {
+                    if (chunkRand.nextDouble() * currentTotal < oversampling * weight(i) * minDist[i]) {
+                        selection.add(i);
+                    }
+                }
+            });
+            firstNew = candidates.size();
+            for (IntList selection : chunkSelections) {
+                for (int i = 0; i < selection.size(); i++) {
+                    candidates.add(selection.get(i));
+                }
+            }
+        }
+
+        // Poids de chaque candidat : nombre (pondéré) de points dont il est le plus proche
+        double[] weights = new double[candidates.size()];
+        for (int i = 0; i < n; i++) {
+            weights[nearest[i]] += weight(i);
+        }
+
+        // Réduction des candidats pondérés à k centroids par k-means++
+        int m = candidates.size();
+        double[][] candidatePoints = new double[m][];
+        for (int q = 0; q < m; q++) {
+            candidatePoints[q] = data.getRow(candidates.get(q));
+        }
+        double[][] centroids = new double[k][];
+        double[] candidateDist = new double[m];
+        Arrays.fill(candidateDist, Double.MAX_VALUE);
+        centroids[0] = candidatePoints[sampleWeighted(weights, candidateDist, rand, true)].clone();
+        for (int j = 1; j < k; j++) {
+            for (int q = 0; q < m; q++) {
+                candidateDist[q] = Math.min(candidateDist[q], squaredDistance(candidatePoints[q], centroids[j - 1]));
+            }
+            int picked = sampleWeighted(weights, candidateDist, rand, false);
+            centroids[j] = picked == -1 ? data.getRow(pickPoint(n, rand)) : candidatePoints[picked].clone();
+        }
+
+        // Quelques itérations de Lloyd pondérées sur les seuls candidats
+        int[] candidateAssignments = new int[m];
+        for (int iteration = 0; iteration < KMEANS_PARALLEL_ROUNDS * 2; iteration++) {
+            boolean changed = false;
+            for (int q = 0; q < m; q++) {
+                int cluster = getNearestCluster(candidatePoints[q], centroids);
+                changed |= cluster != candidateAssignments[q];
+                candidateAssignments[q] = cluster;
+            }
+            if (!changed && iteration > 0) break;
+            double[][] sums = new double[k][data.dimensions()];
+            double[] totals = new double[k];
+            for (int q = 0; q < m; q++) {
+                double[] point = candidatePoints[q];
+                int cluster = candidateAssignments[q];
+                for (int d = 0; d < point.length; d++) {
+                    sums[cluster][d] += weights[q] * point[d];
+                }
+                totals[cluster] += weights[q];
+            }
+            for (int j = 0; j < k; j++) {
+                if (totals[j] == 0) continue; // Centroid sans candidat : conservé tel quel
+                for (int d = 0; d < sums[j].length; d++) {
+                    centroids[j][d] = sums[j][d] / totals[j];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    /**
+     * Tire un index avec une probabilité proportionnelle à son poids (fois la distance, sauf au premier tirage).
+     *
+     * @return L'index tiré, ou -1 si tous les poids sont nuls.
+     */
+    private static int sampleWeighted(double[] weights, double[] dist, Random rand, boolean ignoreDistance) {
+        double total = 0;
+        for (int q = 0; q < weights.length; q++) {
+            total += ignoreDistance ? weights[q] : weights[q] * dist[q];
+        }
+        if (total == 0) return -1;
+        double target = rand.nextDouble() * total;
+        int last = -1;
+        for (int q = 0; q < weights.length; q++) {
+            double weight = ignoreDistance ? weights[q] : weights[q] * dist[q];
+            if (weight == 0) continue;
+            last = q;
+            target -= weight;
+            if (target < 0) return q;
+        }
+        return last;
+    }
+
+    /**
+     * Tire un point avec une probabilité proportionnelle à son poids fois sa distance, en choisissant d'abord le bloc.
+     * Si toutes les distances sont nulles, le tirage est proportionnel au seul poids.
+     */
+    private int sampleProportional(double[] minDist, double[] chunkSums, Random rand) {
+        double total = 0;
+        for (double chunkSum : chunkSums) {
+            total += chunkSum;
+        }
+        if (total == 0) return pickPoint(minDist.length, rand);
+
+        double target = rand.nextDouble() * total;
+        int chunk = 0;
+        while (chunk < chunkSums.length - 1 && target >= chunkSums[chunk]) {
+            target -= chunkSums[chunk];
+            chunk++;
+        }
+        int last = -1;
+        int end = Math.min(minDist.length, (chunk + 1) * CHUNK_SIZE);
+        for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+            double score = weight(i) * minDist[i];
+            if (score == 0) continue;
+            last = i;
+            target -= score;
+            if (target < 0) return i;
+        }
+        return last == -1 ? pickPoint(minDist.length, rand) : last;
+    }
+
+    /**
+     * Tire un point uniformément, ou proportionnellement à son poids si les points sont pondérés.
+     */
+    private int pickPoint(int n, Random rand) {
+        if (pointWeights == null) return rand.nextInt(n);
+        return searchWeight(rand.nextDouble() * weightPrefix[n], n);
+    }
+
+    /**
+     * @return Le premier point dont le poids cumulé dépasse target, ou le dernier point.
+     */
+    private int searchWeight(double target, int n) {
+        int low = 0;
+        int high = n - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (weightPrefix[middle + 1] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return Le poids du point (1 si les points ne sont pas pondérés).
+     */
+    private double weight(int i) {
+        return pointWeights == null ? 1 : pointWeights[i];
+    }
+
+    /**
+     * Exécute la tâche de chaque bloc de points. Les blocs sont indépendants : une sous-classe
+     * peut les répartir sur plusieurs threads.
+     *
+     * @param chunkCount Le nombre de blocs.
+     * @param task La tâche à exécuter pour un numéro de bloc.
+     */
+    protected void forEachChunk(int chunkCount, IntConsumer task) {
+        for (int c = 0; c < chunkCount; c++) {
+            task.accept(c);
+        }
+    }
+
+    /**
+     * Méthode pour trouver le cluster le plus proche d'un point de la matrice.
+     *
+     * @param data La matrice des points.
+     * @param i L'index du point dont on veut trouver le cluster le plus proche.
+     * @param centroids Les centroids des clusters.
+     * @return L'index du cluster le plus proche.
+     */
+    private int getNearestCluster(PointMatrix data, int i, double[][] centroids) {
+        double minDist = Double.MAX_VALUE;
+        int nearestCluster = -1;
+
+        for (int j = 0; j < centroids.length; j++) {
+            double dist = data.distance(i, centroids[j]);
+            if (dist < minDist) {
+                minDist = dist;
+                nearestCluster = j;
+            }
+        }
+
+        return nearestCluster;
+    }
+
     /**
      * Méthode pour trouver le cluster le plus proche d'un point donné.
      *
@@ -92,6 +757,134 @@ public class KMeans implements ClusteringAlgorithm {
         return nearestCluster;
     }
 
+    /**
+     * Assignation d'un point avec les bornes de Hamerly : le point garde son cluster sans aucun calcul
+     * de distance tant que sa borne supérieure reste sous sa borne inférieure et sous la demi-distance
+     * de son centroid au centroid voisin le plus proche.
+     */
+    private int assignHamerly(PointMatrix data, int i, double[][] centroids, int assigned, boolean firstIteration,
+                              Bounds bounds, Accumulator accumulator) {
+        if (!firstIteration) {
+            double upper = bounds.upper[i] + bounds.drift[assigned];
+            double lower = bounds.lower[i] - (assigned == bounds.maxDriftCluster ? bounds.secondMaxDrift : bounds.maxDrift);
+            double limit = Math.max(bounds.halfSeparation[assigned], lower);
+            if (inflate(upper) < limit) {
+                bounds.upper[i] = upper;
+                bounds.lower[i] = lower;
+                return assigned;
+            }
+            upper = data.distance(i, centroids[assigned]);
+            accumulator.distanceComputations++;
+            if (inflate(upper) < limit) {
+                bounds.upper[i] = upper;
+                bounds.lower[i] = lower;
+                return assigned;
+            }
+        }
+
+        // Parcours complet, dans le même ordre que getNearestCluster
+        double minDist = Double.MAX_VALUE;
+        double secondDist = Double.MAX_VALUE;
+        int nearestCluster = -1;
+        for (int j = 0; j < centroids.length; j++) {
+            double dist = data.distance(i, centroids[j]);
+            if (dist < minDist) {
+                secondDist = minDist;
+                minDist = dist;
+                nearestCluster = j;
+            } else if (dist < secondDist) {
+                secondDist = dist;
+            }
+        }
+        accumulator.distanceComputations += centroids.length;
+        bounds.upper[i] = minDist;
+        bounds.lower[i] = secondDist;
+        return nearestCluster;
+    }
+
+    /**
+     * Assignation d'un point avec les bornes d'Elkan : un centroid n'est comparé que si ni sa borne
+     * inférieure ni l'inégalité triangulaire ne prouvent qu'il est strictement plus loin que le centroid courant.
+     */
+    private int assignElkan(PointMatrix data, int i, double[][] centroids, int assigned, boolean firstIteration,
+                            Bounds bounds, Accumulator accumulator) {
+        int base = i * k;
+        if (firstIteration) {
+            double minDist = Double.MAX_VALUE;
+            int nearestCluster = -1;
+            for (int j = 0; j < k; j++) {
+                double dist = data.distance(i, centroids[j]);
+                bounds.lower[base + j] = dist;
+                if (dist < minDist) {
+                    minDist = dist;
+                    nearestCluster = j;
+                }
+            }
+            accumulator.distanceComputations += k;
+            bounds.upper[i] = minDist;
+            return nearestCluster;
+        }
+
+        for (int j = 0; j < k; j++) {
+            bounds.lower[base + j] = Math.max(bounds.lower[base + j] - bounds.drift[j], 0);
+        }
+        int nearestCluster = assigned;
+        double upper = bounds.upper[i] + bounds.drift[assigned];
+        boolean tight = false;
+
+        if (inflate(upper) >= bounds.halfSeparation[assigned]) {
+            for (int j = 0; j < k; j++) {
+                if (j == nearestCluster || isPruned(upper, bounds, base, nearestCluster, j)) continue;
+                if (!tight) {
+                    upper = data.distance(i, centroids[nearestCluster]);
+                    bounds.lower[base + nearestCluster] = upper;
+                    accumulator.distanceComputations++;
+                    tight = true;
+                    if (isPruned(upper, bounds, base, nearestCluster, j)) continue;
+                }
+                double dist = data.distance(i, centroids[j]);
+                bounds.lower[base + j] = dist;
+                accumulator.distanceComputations++;
+                // À distance égale, Lloyd garde le plus petit index
+                if (dist < upper || (dist == upper && j < nearestCluster)) {
+                    upper = dist;
+                    nearestCluster = j;
+                }
+            }
+        }
+        bounds.upper[i] = upper;
+        return nearestCluster;
+    }
+
+    private boolean isPruned(double upper, Bounds bounds, int base, int assigned, int candidate) {
+        double inflated = inflate(upper);
+        return inflated < bounds.lower[base + candidate]
+                || inflated < 0.5 * bounds.centroidDistances[assigned][candidate];
+    }
+
+    /**
+     * Élargit une borne supérieure de la marge d'arrondi.
+     */
+    private static double inflate(double upper) {
+        return upper + BOUND_TOLERANCE * (1 + upper);
+    }
+
+    /**
+     * Méthode pour calculer le carré de la distance euclidienne entre deux points.
+     *
+     * @param point1 Premier point.
+     * @param point2 Deuxième point.
+     * @return Le carré de la distance euclidienne entre les deux points.
+     */
+    private static double squaredDistance(double[] point1, double[] point2) {
+        double sum = 0;
+        for (int i = 0; i < point1.length; i++) {
+            double diff = point1[i] - point2[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
     /**
      * Méthode pour calculer la distance euclidienne entre deux points.
      *
@@ -99,7 +892,7 @@ public class KMeans implements ClusteringAlgorithm {
      * @param point2 Deuxième point.
      * @return La distance euclidienne entre les deux points.
      */
-    private double distance(double[] point1, double[] point2) {
+    private static double distance(double[] point1, double[] point2) {
         double sum = 0;
         for (int i = 0; i < point1.length; i++) {
             double diff = point1[i] - point2[i];
@@ -107,4 +900,134 @@ public class KMeans implements ClusteringAlgorithm {
         }
         return Math.sqrt(sum);
     }
+
+    private static double[][] copy(double[][] centroids) {
+        double[][] copy = new double[centroids.length][];
+        for (int i = 0; i < centroids.length; i++) {
+            copy[i] = centroids[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Plus grand déplacement d'un centroid entre deux itérations (les clusters vides ne sont pas comptés).
+     */
+    private static double maxShift(double[][] centroids, double[][] newCentroids, double[] counts) {
+        double maxShift = 0;
+        for (int i = 0; i < centroids.length; i++) {
+            if (counts[i] == 0) continue;
+            double sum = 0;
+            for (int j = 0; j < centroids[i].length; j++) {
+                double diff = newCentroids[i][j] - centroids[i][j];
+                sum += diff * diff;
+            }
+            maxShift = Math.max(maxShift, Math.sqrt(sum));
+        }
+        return maxShift;
+    }
+
+    /**
+     * Sommes et effectifs partiels d'un bloc de points, réutilisés d'une itération à l'autre.
+     */
+    private static class Accumulator {
+        private double[][] sums;
+        private double[] counts;
+        /**
+         * Nombre de points du bloc qui ont changé de cluster.
+         */
+        private int changed;
+        private long distanceComputations;
+
+        private Accumulator(int k, int dimensions) {
+            sums = new double[k][dimensions];
+            counts = new double[k];
+        }
+
+        private void reset() {
+            for (double[] sum : sums) {
+                Arrays.fill(sum, 0);
+            }
+            Arrays.fill(counts, 0);
+            changed = 0;
+            distanceComputations = 0;
+        }
+
+        private void add(int cluster, PointMatrix data, int i, double weight) {
+            double[] sum = sums[cluster];
+            for (int j = 0; j < sum.length; j++) {
+                sum[j] += weight * data.get(i, j);
+            }
+            counts[cluster] += weight;
+        }
+    }
+
+    /**
+     * Bornes de distance par point (Elkan ou Hamerly) et distances entre centroids de l'itération courante.
+     */
+    private static class Bounds {
+        private double[] upper;
+        private double[] lower;
+        private double[][] centroidDistances;
+        private double[] halfSeparation;
+        private double[] drift;
+        private double maxDrift;
+        private double secondMaxDrift;
+        private int maxDriftCluster;
+
+        private Bounds(int n, int k, KMeansStrategy strategy) {
+            upper = new double[n];
+            if (strategy == KMeansStrategy.ELKAN) {
+                // Une borne inférieure par point et par centroid : n * k doit tenir dans un tableau
+                long length = (long) n * k;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Trop de bornes pour Elkan : " + n + " points et " + k
+                            + " clusters, soit " + length + " bornes ; utiliser la stratégie HAMERLY");
+                }
+                lower = new double[(int) length];
+            } else {
+                lower = new double[n];
+            }
+            centroidDistances = new double[k][k];
+            halfSeparation = new double[k];
+            drift = new double[k];
+        }
+
+        /**
+         * Calcule les distances entre centroids et, pour chacun, la moitié de la distance au plus proche voisin.
+         */
+        private void prepare(double[][] centroids) {
+            int k = centroids.length;
+            for (int a = 0; a < k; a++) {
+                halfSeparation[a] = Double.MAX_VALUE;
+            }
+            for (int a = 0; a < k; a++) {
+                for (int b = a + 1; b < k; b++) {
+                    double dist = distance(centroids[a], centroids[b]);
+                    centroidDistances[a][b] = dist;
+                    centroidDistances[b][a] = dist;
+                    halfSeparation[a] = Math.min(halfSeparation[a], 0.5 * dist);
+                    halfSeparation[b] = Math.min(halfSeparation[b], 0.5 * dist);
+                }
+            }
+        }
+
+        /**
+         * Mémorise le déplacement de chaque centroid, appliqué aux bornes lors de l'itération suivante.
+         */
+        private void recordDrift(double[][] oldCentroids, double[][] newCentroids) {
+            maxDrift = 0;
+            secondMaxDrift = 0;
+            maxDriftCluster = -1;
+            for (int j = 0; j < drift.length; j++) {
+                drift[j] = distance(oldCentroids[j], newCentroids[j]);
+                if (drift[j] > maxDrift) {
+                    secondMaxDrift = maxDrift;
+                    maxDrift = drift[j];
+                    maxDriftCluster = j;
+                } else if (drift[j] > secondMaxDrift) {
+                    secondMaxDrift = drift[j];
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,21 @@
+/**
+ * Méthodes de choix des centroids initiaux pour KMeans.
+ */
+public enum KMeansInitialisation {
+    /**
+     * k points distincts tirés uniformément.
+     */
+    RANDOM,
+
+    /**
+     * k-means++ : chaque nouveau centroid est tiré avec une probabilité proportionnelle au carré
+     * de sa distance au centroid déjà choisi le plus proche.
+     */
+    KMEANS_PLUS_PLUS,
+
+    /**
+     * k-means|| : quelques passes qui sur-échantillonnent environ 2k candidats chacune, en parallèle,
+     * puis réduction des candidats pondérés à k centroids par k-means++.
+     */
+    KMEANS_PARALLEL
+}
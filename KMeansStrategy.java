@@ -0,0 +1,22 @@
+/**
+ * Stratégies d'assignation des points aux centroids pour KMeans.
+ * Toutes produisent exactement les mêmes assignations ; elles diffèrent par le nombre de distances calculées.
+ */
+public enum KMeansStrategy {
+    /**
+     * Algorithme de Lloyd : distance à chaque centroid, pour chaque point, à chaque itération.
+     */
+    LLOYD,
+
+    /**
+     * Variante de Hamerly : une borne supérieure et une seule borne inférieure par point.
+     * Mémoire en O(n), efficace pour un petit nombre de clusters.
+     */
+    HAMERLY,
+
+    /**
+     * Variante d'Elkan : une borne supérieure et une borne inférieure par point et par centroid.
+     * Mémoire en O(n * k), évite le plus de calculs quand k est grand.
+     */
+    ELKAN
+}
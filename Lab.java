@@ -1,71 +1,151 @@
 //License from project: Apache License 
 
+import java.util.Arrays;
+
+/**
+ * Conversion RGB vers CIELAB (http://www.brucelindbloom.com).
+ * La linéarisation sRGB et la racine cubique sont tabulées ; les valeurs Lab obtenues restent à au plus une unité
+ * du calcul direct par Math.pow.
+ */
 public class Lab {
-    public static int[] rgb2lab(int R, int G, int B) {
-        // http://www.brucelindbloom.com
+    private static final float EPS = 216.f / 24389.f;
+    private static final float K = 24389.f / 27.f;
 
-        float r, g, b, X, Y, Z, fx, fy, fz, xr, yr, zr;
-        float Ls, as, bs;
-        float eps = 216.f / 24389.f;
-        float k = 24389.f / 27.f;
+    // reference white D50
+    private static final float XR = 0.964221f;
+    private static final float YR = 1.0f;
+    private static final float ZR = 0.825211f;
 
-        float Xr = 0.964221f; // reference white D50
-        float Yr = 1.0f;
-        float Zr = 0.825211f;
+    /**
+     * Composante sRGB (0..255) linéarisée.
+     */
+    private static final float[] LINEAR = new float[256];
 
+    /**
+     * Racine cubique tabulée sur [0, CBRT_MAX], interpolée linéairement entre deux entrées.
+     */
+    private static final int CBRT_SIZE = 4096;
+    private static final float CBRT_MAX = 1.05f;
+    private static final float CBRT_SCALE = CBRT_SIZE / CBRT_MAX;
+    private static final float[] CBRT = new float[CBRT_SIZE + 2];
+
+    static {
+        for (int i = 0; i < LINEAR.length; i++) {
+            float c = i / 255.f;
+            // assuming sRGB (D65)
+            if (c <= 0.04045)
+                LINEAR[i] = c / 12;
+            else
+                LINEAR[i] = (float) Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+        for (int i = 0; i < CBRT.length; i++) {
+            CBRT[i] = (float) Math.cbrt(i / CBRT_SCALE);
+        }
+    }
+
+    public static int[] rgb2lab(int R, int G, int B) {
+        int[] lab = new int[3];
+        rgb2lab((R << 16) | (G << 8) | B, lab);
+        return lab;
+    }
+
+    /**
+     * Conversion sans allocation.
+     *
+     * @param rgb La couleur au format 0xRRGGBB.
+     * @param lab Le tableau (de taille 3) qui reçoit L (entre 0 et 255), a et b.
+     */
+    public static void rgb2lab(int rgb, int[] lab) {
+        int packed = rgb2labPacked(rgb);
+        lab[0] = getL(packed);
+        lab[1] = getA(packed);
+        lab[2] = getB(packed);
+    }
+
+    /**
+     * Conversion vers un entier compacté, à décoder avec getL, getA et getB.
+     *
+     * @param rgb La couleur au format 0xRRGGBB.
+     * @return Les valeurs Lab compactées.
+     */
+    public static int rgb2labPacked(int rgb) {
         // RGB to XYZ
-        r = R / 255.f; // R 0..1
-        g = G / 255.f; // G 0..1
-        b = B / 255.f; // B 0..1
-
-        // assuming sRGB (D65)
-        if (r <= 0.04045)
-            r = r / 12;/*from  www. jav a2 s.com*/
-        else
-            r = (float) Math.pow((r + 0.055) / 1.055, 2.4);
-
-        if (g <= 0.04045)
-            g = g / 12;
-        else
-            g = (float) Math.pow((g + 0.055) / 1.055, 2.4);
-
-        if (b <= 0.04045)
-            b = b / 12;
-        else
-            b = (float) Math.pow((b + 0.055) / 1.055, 2.4);
-
-        X = 0.436052025f * r + 0.385081593f * g + 0.143087414f * b;
-        Y = 0.222491598f * r + 0.71688606f * g + 0.060621486f * b;
-        Z = 0.013929122f * r + 0.097097002f * g + 0.71418547f * b;
+        float r = LINEAR[(rgb >> 16) & 0xFF];
+        float g = LINEAR[(rgb >> 8) & 0xFF];
+        float b = LINEAR[rgb & 0xFF];
+
+        float X = 0.436052025f * r + 0.385081593f * g + 0.143087414f * b;
+        float Y = 0.222491598f * r + 0.71688606f * g + 0.060621486f * b;
+        float Z = 0.013929122f * r + 0.097097002f * g + 0.71418547f * b;
 
         // XYZ to Lab
-        xr = X / Xr;
-        yr = Y / Yr;
-        zr = Z / Zr;
+        float fx = f(X / XR);
+        float fy = f(Y / YR);
+        float fz = f(Z / ZR);
 
-        if (xr > eps)
-            fx = (float) Math.pow(xr, 1 / 3.);
-        else
-            fx = (float) ((k * xr + 16.) / 116.);
+        float Ls = (116 * fy) - 16;
+        float as = 500 * (fx - fy);
+        float bs = 200 * (fy - fz);
 
-        if (yr > eps)
-            fy = (float) Math.pow(yr, 1 / 3.);
-        else
-            fy = (float) ((k * yr + 16.) / 116.);
+        int L = (int) (2.55 * Ls + .5);
+        int A = (int) (as + .5);
+        int B = (int) (bs + .5);
+        return (L << 16) | ((A & 0xFF) << 8) | (B & 0xFF);
+    }
 
-        if (zr > eps)
-            fz = (float) Math.pow(zr, 1 / 3.);
-        else
-            fz = (float) ((k * zr + 16.) / 116);
+    /**
+     * Conversion par une table des 2^24 couleurs, construite au premier appel (64 Mo).
+     *
+     * @param rgb La couleur au format 0xRRGGBB.
+     * @return Les valeurs Lab compactées, identiques à celles de rgb2labPacked.
+     */
+    public static int rgb2labCached(int rgb) {
+        return Cache.TABLE[rgb & 0xFFFFFF];
+    }
 
-        Ls = (116 * fy) - 16;
-        as = 500 * (fx - fy);
-        bs = 200 * (fy - fz);
+    /**
+     * @param packed Des valeurs Lab compactées.
+     * @return La composante L, entre 0 et 255.
+     */
+    public static int getL(int packed) {
+        return packed >>> 16;
+    }
 
-        int[] lab = new int[3];
-        lab[0] = (int) (2.55 * Ls + .5);
-        lab[1] = (int) (as + .5);
-        lab[2] = (int) (bs + .5);
-        return lab;
+    /**
+     * @param packed Des valeurs Lab compactées.
+     * @return La composante a.
+     */
+    public static int getA(int packed) {
+        return (byte) (packed >> 8);
+    }
+
+    /**
+     * @param packed Des valeurs Lab compactées.
+     * @return La composante b.
+     */
+    public static int getB(int packed) {
+        return (byte) packed;
+    }
+
+    private static float f(float t) {
+        if (t <= EPS)
+            return (float) ((K * t + 16.) / 116.);
+        if (t >= CBRT_MAX)
+            return (float) Math.cbrt(t);
+        float position = t * CBRT_SCALE;
+        int i = (int) position;
+        float fraction = position - i;
+        return CBRT[i] + (CBRT[i + 1] - CBRT[i]) * fraction;
+    }
+
+    /**
+     * Table des 2^24 couleurs, chargée seulement si rgb2labCached est utilisée.
+     */
+    private static class Cache {
+        private static final int[] TABLE = new int[1 << 24];
+
+        static {
+            Arrays.parallelSetAll(TABLE, Lab::rgb2labPacked);
+        }
     }
 }
\ No newline at end of file
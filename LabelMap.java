@@ -0,0 +1,380 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Classe représentant le résultat d'une détection sous une forme compacte : le biome et l'écosystème de chaque pixel,
+ * et la couleur de chaque biome. Un seul fichier remplace l'image des biomes et les images des écosystèmes.
+ * <p>
+ * Format (gros-boutiste) : "BIOM", version (1 octet), largeur et hauteur (int), nombre de bits par étiquette
+ * des biomes puis des écosystèmes (1 octet chacun : 8, 16 ou 32), nombre de couleurs (short) suivi d'une couleur
+ * RGB (3 octets) par biome, puis les deux couches. Chaque couche est précédée de sa taille en octets (int) et
+ * compressée par plages : longueur de la plage (entier variable, 7 bits par octet) puis étiquette.
+ * Les étiquettes sont stockées décalées de 1, pour que le bruit (-1) vaille 0.
+ * Une image compte au plus Integer.MAX_VALUE pixels et 65535 biomes, et chaque couche compressée au plus
+ * Integer.MAX_VALUE octets ; write refuse les résultats qui dépassent ces limites. À la lecture, chaque couche
+ * est projetée en mémoire séparément : le fichier entier peut dépasser 2 Go.
+ */
+public class LabelMap {
+    private static final int MAGIC = 0x42494F4D; // "BIOM"
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Nombre de nuances utilisées pour distinguer les écosystèmes d'un biome.
+     */
+    private static final int SHADES = 8;
+
+    private int width;
+    private int height;
+    private int[] biomes;
+    private int[] ecosystems;
+    private int[] colors;
+
+    /**
+     * Constructeur pour initialiser le résultat d'une détection.
+     *
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @param biomes Le biome de chaque pixel, ligne par ligne (-1 pour le bruit).
+     * @param ecosystems L'écosystème de chaque pixel, ligne par ligne (-1 pour le bruit).
+     * @param colors La couleur de chaque biome, au format 0xRRGGBB.
+     */
+    public LabelMap(int width, int height, int[] biomes, int[] ecosystems, int[] colors) {
+        this.width = width;
+        this.height = height;
+        this.biomes = biomes;
+        this.ecosystems = ecosystems;
+        this.colors = colors;
+    }
+
+    /**
+     * @return La largeur de l'image.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return La hauteur de l'image.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Le biome de chaque pixel, ligne par ligne.
+     */
+    public int[] getBiomes() {
+        return biomes;
+    }
+
+    /**
+     * @return L'écosystème de chaque pixel, ligne par ligne.
+     */
+    public int[] getEcosystems() {
+        return ecosystems;
+    }
+
+    /**
+     * @return La couleur de chaque biome, au format 0xRRGGBB.
+     */
+    public int[] getColors() {
+        return colors;
+    }
+
+    /**
+     * Méthode pour écrire le fichier.
+     *
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit, ou si une couche compressée dépasse la taille
+     *                     permise par le format (le fichier partiel est alors supprimé).
+     * @throws IllegalArgumentException S'il y a plus de 65535 biomes.
+     */
+    public void write(Path path) throws IOException {
+        if (colors.length > 0xFFFF) {
+            throw new IllegalArgumentException("Trop de biomes pour le format : " + colors.length + " (65535 au plus)");
+        }
+        try {
+            writeFile(path);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    private void writeFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int biomeBits = bitsFor(biomes);
+            int ecosystemBits = bitsFor(ecosystems);
+
+            ByteBuffer header = ByteBuffer.allocate(17 + 3 * colors.length);
+            header.putInt(MAGIC).put(VERSION).putInt(width).putInt(height);
+            header.put((byte) biomeBits).put((byte) ecosystemBits).putShort((short) colors.length);
+            for (int color : colors) {
+                header.put((byte) (color >> 16)).put((byte) (color >> 8)).put((byte) color);
+            }
+            header.flip();
+            writeFully(channel, header);
+
+            writeLayer(channel, biomes, biomeBits);
+            writeLayer(channel, ecosystems, ecosystemBits);
+        }
+    }
+
+    /**
+     * Méthode pour lire un fichier écrit par write. Chaque couche est projetée en mémoire pendant sa lecture.
+     * L'en-tête et les couches sont vérifiés : un fichier tronqué ou corrompu donne une IOException.
+     *
+     * @param path Le chemin du fichier.
+     * @return Le résultat de la détection.
+     * @throws IOException Si le fichier ne peut pas être lu ou n'est pas au bon format.
+     */
+    public static LabelMap read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readBytes(channel, 0, 17, path);
+            if (header.getInt() != MAGIC || header.get() != VERSION) {
+                throw new IOException("Fichier d'étiquettes invalide : " + path);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            long size = (long) width * height;
+            if (width < 0 || height < 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Dimensions invalides (" + width + " x " + height + ") : " + path);
+            }
+            int biomeBits = header.get();
+            int ecosystemBits = header.get();
+            if (!validBits(biomeBits) || !validBits(ecosystemBits)) {
+                throw new IOException("Nombre de bits par étiquette invalide (" + biomeBits + ", " + ecosystemBits
+                        + ") : " + path);
+            }
+            int[] colors = new int[header.getShort() & 0xFFFF];
+            ByteBuffer colorBytes = readBytes(channel, 17, 3 * colors.length, path);
+            for (int i = 0; i < colors.length; i++) {
+                int r = colorBytes.get() & 0xFF;
+                int g = colorBytes.get() & 0xFF;
+                colors[i] = (r << 16) | (g << 8) | (colorBytes.get() & 0xFF);
+            }
+
+            long position = 17 + 3L * colors.length;
+            MappedByteBuffer biomeLayer = mapLayer(channel, position, path);
+            int[] biomes = readLayer(biomeLayer, (int) size, biomeBits, path);
+            position += Integer.BYTES + biomeLayer.capacity();
+            int[] ecosystems = readLayer(mapLayer(channel, position, path), (int) size, ecosystemBits, path);
+            return new LabelMap(width, height, biomes, ecosystems, colors);
+        }
+    }
+
+    /**
+     * Méthode pour obtenir l'image des biomes : chaque pixel prend la couleur de son biome, le bruit est noir.
+     *
+     * @return L'image des biomes.
+     */
+    public BufferedImage toBiomeImage() {
+        PixelBuffer image = new PixelBuffer(width, height);
+        int[] pixels = image.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = colorOf(biomes[i]);
+        }
+        return image.toImage();
+    }
+
+    /**
+     * Méthode pour obtenir l'image des écosystèmes d'un biome : chaque écosystème prend une nuance de la couleur
+     * du biome, le bruit la nuance la plus sombre, et les pixels des autres biomes restent noirs.
+     *
+     * @param biome Le biome.
+     * @return L'image des écosystèmes du biome.
+     */
+    public BufferedImage toEcosystemImage(int biome) {
+        PixelBuffer image = new PixelBuffer(width, height);
+        int[] pixels = image.getPixels();
+        int color = colorOf(biome);
+        for (int i = 0; i < pixels.length; i++) {
+            if (biomes[i] == biome) pixels[i] = shade(color, ecosystems[i]);
+        }
+        return image.toImage();
+    }
+
+    /**
+     * Méthode pour écrire, à la demande, les images PNG habituelles : l'image des biomes et une image des
+     * écosystèmes par biome, avec les mêmes noms de fichiers que les programmes principaux (voir {@link MainExport}).
+     *
+     * @param directory Le dossier de sortie.
+     * @param algorithmType Le type d'algorithme utilisé (pour nommer les fichiers de sortie).
+     * @throws IOException Si une image ne peut pas être écrite.
+     */
+    public void exportPngs(Path directory, String algorithmType) throws IOException {
+        ImageIO.write(toBiomeImage(), "png", directory.resolve("biome_output_" + algorithmType + ".png").toFile());
+        boolean[] present = new boolean[colors.length];
+        for (int biome : biomes) {
+            if (biome >= 0 && biome < colors.length) present[biome] = true;
+        }
+        for (int biome = 0; biome < colors.length; biome++) {
+            if (!present[biome]) continue;
+            ImageIO.write(toEcosystemImage(biome), "png",
+                    directory.resolve("ecosystem_output_" + algorithmType + "_biome_" + biome + ".png").toFile());
+        }
+    }
+
+    /**
+     * Nuance d'une couleur pour un écosystème : SHADES luminosités entre 40 % et 100 %, les numéros consécutifs
+     * étant répartis sur des luminosités éloignées.
+     */
+    private static int shade(int color, int ecosystem) {
+        double factor = ecosystem < 0 ? 0.25 : 0.4 + 0.6 * ((ecosystem * 3) % SHADES) / (SHADES - 1);
+        int r = (int) (((color >> 16) & 0xFF) * factor);
+        int g = (int) (((color >> 8) & 0xFF) * factor);
+        int b = (int) ((color & 0xFF) * factor);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private int colorOf(int biome) {
+        return biome >= 0 && biome < colors.length ? colors[biome] : 0;
+    }
+
+    /**
+     * Nombre de bits nécessaires pour stocker les étiquettes décalées de 1.
+     */
+    private static int bitsFor(int[] labels) {
+        long max = 0;
+        for (int label : labels) {
+            max = Math.max(max, (long) label + 1);
+        }
+        return max < (1 << 8) ? 8 : max < (1 << 16) ? 16 : 32;
+    }
+
+    /**
+     * Écrit une couche compressée par plages, précédée de sa taille en octets.
+     */
+    private static void writeLayer(FileChannel channel, int[] labels, int bits) throws IOException {
+        long sizePosition = channel.position();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.putInt(0); // taille, écrite à la fin
+        long size = 0;
+
+        int i = 0;
+        while (i < labels.length) {
+            int value = labels[i];
+            int run = 1;
+            while (i + run < labels.length && labels[i + run] == value) run++;
+            i += run;
+
+            if (buffer.remaining() < 9) {
+                size += buffer.position();
+                buffer.flip();
+                writeFully(channel, buffer);
+                buffer.clear();
+            }
+            while (run >= 0x80) {
+                buffer.put((byte) (run | 0x80));
+                run >>>= 7;
+            }
+            buffer.put((byte) run);
+            int stored = value + 1;
+            if (bits == 8) buffer.put((byte) stored);
+            else if (bits == 16) buffer.putShort((short) stored);
+            else buffer.putInt(stored);
+        }
+        size += buffer.position();
+        buffer.flip();
+        writeFully(channel, buffer);
+
+        if (size - Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Couche d'étiquettes trop grande pour le format : "
+                    + (size - Integer.BYTES) + " octets");
+        }
+        long end = channel.position();
+        ByteBuffer sizeBuffer = ByteBuffer.allocate(Integer.BYTES).putInt((int) (size - Integer.BYTES));
+        sizeBuffer.flip();
+        channel.position(sizePosition);
+        writeFully(channel, sizeBuffer);
+        channel.position(end);
+    }
+
+    private static boolean validBits(int bits) {
+        return bits == 8 || bits == 16 || bits == 32;
+    }
+
+    /**
+     * Lit count octets à partir de position, ou lève une IOException si le fichier est trop court.
+     */
+    private static ByteBuffer readBytes(FileChannel channel, long position, int count, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(count);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fichier d'étiquettes tronqué : " + path);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Projette en mémoire la couche qui commence à position (sa taille, puis ses plages), après avoir vérifié
+     * que le fichier la contient entièrement.
+     */
+    private static MappedByteBuffer mapLayer(FileChannel channel, long position, Path path) throws IOException {
+        int layerSize = readBytes(channel, position, Integer.BYTES, path).getInt();
+        if (layerSize < 0 || layerSize > channel.size() - position - Integer.BYTES) {
+            throw new IOException("Fichier d'étiquettes tronqué : " + path);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position + Integer.BYTES, layerSize);
+    }
+
+    private static int[] readLayer(ByteBuffer buffer, int size, int bits, Path path) throws IOException {
+        // Vérifier toutes les plages avant d'allouer la couche : un en-tête corrompu ne fait pas allouer des gigaoctets
+        decodeLayer(buffer.duplicate(), null, size, bits, path);
+        int[] labels = new int[size];
+        decodeLayer(buffer, labels, size, bits, path);
+        return labels;
+    }
+
+    /**
+     * Décode les plages d'une couche dans labels, ou les vérifie seulement si labels est null.
+     */
+    private static void decodeLayer(ByteBuffer buffer, int[] labels, int size, int bits, Path path) throws IOException {
+        int labelBytes = bits / 8;
+        int i = 0;
+        while (buffer.hasRemaining()) {
+            // Longueur de la plage : au plus 5 octets pour un int, strictement positive
+            int run = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (!buffer.hasRemaining() || shift > 28) {
+                    throw new IOException("Longueur de plage invalide : " + path);
+                }
+                b = buffer.get();
+                run |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (run <= 0 || buffer.remaining() < labelBytes) {
+                throw new IOException("Plage d'étiquettes invalide : " + path);
+            }
+            int stored = bits == 8 ? buffer.get() & 0xFF : bits == 16 ? buffer.getShort() & 0xFFFF : buffer.getInt();
+            if (run > size - i) {
+                throw new IOException("Couche d'étiquettes trop longue : " + path);
+            }
+            if (labels != null) Arrays.fill(labels, i, i + run, stored - 1);
+            i += run;
+        }
+        if (i != size) {
+            throw new IOException("Couche d'étiquettes incomplète : " + path);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
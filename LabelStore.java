@@ -0,0 +1,158 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classe qui stocke l'étiquette de chaque pixel d'une image dans un fichier projeté en mémoire,
+ * ligne par ligne, un entier par pixel. Le système charge et écrit les pages à la demande :
+ * le tas ne dépend pas de la taille de l'image.
+ */
+public class LabelStore implements Closeable {
+    /**
+     * Nombre d'étiquettes par projection (1 Go) : une projection ne peut pas dépasser 2 Go.
+     */
+    private static final int SEGMENT_BITS = 28;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    private FileChannel channel;
+    private MappedByteBuffer[] mappings;
+    private IntBuffer[] segments;
+    private int width;
+    private int height;
+
+    private LabelStore(FileChannel channel, FileChannel.MapMode mode, int width, int height) throws IOException {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        long size = (long) width * height;
+        int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        mappings = new MappedByteBuffer[count];
+        segments = new IntBuffer[count];
+        for (int s = 0; s < count; s++) {
+            long start = (long) s << SEGMENT_BITS;
+            long length = Math.min(size - start, 1L << SEGMENT_BITS);
+            mappings[s] = channel.map(mode, start * Integer.BYTES, length * Integer.BYTES);
+            segments[s] = mappings[s].asIntBuffer();
+        }
+    }
+
+    /**
+     * Crée (ou remplace) un fichier d'étiquettes, toutes nulles.
+     *
+     * @param path Le chemin du fichier.
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @return Le stockage, ouvert en lecture et écriture.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public static LabelStore create(Path path, int width, int height) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LabelStore(channel, FileChannel.MapMode.READ_WRITE, width, height);
+    }
+
+    /**
+     * Ouvre en lecture un fichier d'étiquettes existant.
+     *
+     * @param path Le chemin du fichier.
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @return Le stockage, ouvert en lecture seule.
+     * @throws IOException Si le fichier ne peut pas être ouvert ou s'il est trop petit.
+     */
+    public static LabelStore open(Path path, int width, int height) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() < (long) width * height * Integer.BYTES) {
+            channel.close();
+            throw new IOException("Fichier d'étiquettes trop petit pour une image " + width + "x" + height + " : " + path);
+        }
+        return new LabelStore(channel, FileChannel.MapMode.READ_ONLY, width, height);
+    }
+
+    /**
+     * @return La largeur de l'image.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return La hauteur de l'image.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Méthode pour lire l'étiquette d'un pixel.
+     *
+     * @param x L'abscisse.
+     * @param y L'ordonnée.
+     * @return L'étiquette.
+     */
+    public int get(int x, int y) {
+        long index = (long) y * width + x;
+        return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+    }
+
+    /**
+     * Méthode pour écrire l'étiquette d'un pixel.
+     *
+     * @param x L'abscisse.
+     * @param y L'ordonnée.
+     * @param label L'étiquette.
+     */
+    public void set(int x, int y, int label) {
+        long index = (long) y * width + x;
+        segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & SEGMENT_MASK), label);
+    }
+
+    /**
+     * Méthode pour copier les étiquettes d'un rectangle, ligne par ligne.
+     *
+     * @param x L'abscisse du coin supérieur gauche.
+     * @param y L'ordonnée du coin supérieur gauche.
+     * @param tileWidth La largeur du rectangle.
+     * @param tileHeight La hauteur du rectangle.
+     * @param labels Le tableau (de taille au moins tileWidth * tileHeight) qui reçoit les étiquettes.
+     */
+    public void getTile(int x, int y, int tileWidth, int tileHeight, int[] labels) {
+        for (int row = 0; row < tileHeight; row++) {
+            for (int col = 0; col < tileWidth; col++) {
+                labels[row * tileWidth + col] = get(x + col, y + row);
+            }
+        }
+    }
+
+    /**
+     * Méthode pour écrire les étiquettes d'un rectangle, ligne par ligne.
+     *
+     * @param x L'abscisse du coin supérieur gauche.
+     * @param y L'ordonnée du coin supérieur gauche.
+     * @param tileWidth La largeur du rectangle.
+     * @param tileHeight La hauteur du rectangle.
+     * @param labels Les étiquettes du rectangle.
+     */
+    public void setTile(int x, int y, int tileWidth, int tileHeight, int[] labels) {
+        for (int row = 0; row < tileHeight; row++) {
+            for (int col = 0; col < tileWidth; col++) {
+                set(x + col, y + row, labels[row * tileWidth + col]);
+            }
+        }
+    }
+
+    /**
+     * Écrit sur le disque les pages modifiées et ferme le fichier.
+     */
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer mapping : mappings) {
+            if (!mapping.isReadOnly()) mapping.force();
+        }
+        channel.close();
+    }
+}
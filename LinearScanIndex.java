@@ -0,0 +1,28 @@
+/**
+ * Index spatial trivial qui compare le point de requête à tous les autres points.
+ */
+public class LinearScanIndex implements SpatialIndex {
+    private PointMatrix points;
+    private double eps;
+
+    /**
+     * Constructeur pour initialiser l'index.
+     *
+     * @param points Les points à indexer.
+     * @param eps Le rayon de voisinage.
+     */
+    public LinearScanIndex(PointMatrix points, double eps) {
+        this.points = points;
+        this.eps = eps;
+    }
+
+    @Override
+    public void rangeQuery(int pointIndex, IntList neighbors) {
+        neighbors.clear();
+        for (int i = 0; i < points.size(); i++) {
+            if (points.distance(pointIndex, i) <= eps) {
+                neighbors.add(i);
+            }
+        }
+    }
+}
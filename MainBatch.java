@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe principale pour détecter les biomes et les écosystèmes d'une série d'images. Pour chaque image,
+ * le dossier de sortie reçoit l'image des biomes et un fichier d'étiquettes avec les écosystèmes (voir {@link MainExport}).
+ * Usage : java MainBatch &lt;dossier ou motif, par exemple "planetes/*.jpg"&gt; [dossier de sortie] [niveau de flou]
+ */
+public class MainBatch {
+    /**
+     * Motif des images retenues quand l'entrée est un dossier.
+     */
+    private static final String IMAGE_GLOB = "*.{jpg,jpeg,png,bmp,gif}";
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage : java MainBatch <dossier ou motif> [dossier de sortie] [niveau de flou]");
+            System.exit(1);
+        }
+        Path outputDirectory = Paths.get(args.length > 1 ? args[1] : "sorties");
+        int blurLevel = args.length > 2 ? Integer.parseInt(args[2]) : 7; // Niveau de flou gaussien
+
+        try {
+            List<Path> inputs = listInputs(args[0]);
+            if (inputs.isEmpty()) {
+                System.err.println("Aucune image trouvée : " + args[0]);
+                System.exit(1);
+            }
+            Files.createDirectories(outputDirectory);
+
+            // Calcul sur autant de threads que de processeurs, entrées-sorties sur deux threads par étape
+            BatchPipeline pipeline = new BatchPipeline(outputDirectory, blurLevel,
+                    Runtime.getRuntime().availableProcessors(), 2);
+            pipeline.setProgressListener(new BatchPipeline.ProgressListener() {
+                @Override
+                public void imageCompleted(Path input, Path output, int ecosystemCount) {
+                    System.out.println(input + " -> " + output + " (" + ecosystemCount + " écosystèmes)");
+                }
+
+                @Override
+                public void imageFailed(Path input, String reason) {
+                    System.err.println("Image ignorée " + input + " : " + reason);
+                }
+            });
+            int succeeded = pipeline.run(inputs);
+            System.out.println(succeeded + " image(s) sur " + inputs.size() + " traitée(s) avec succès.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Liste les images d'un dossier, ou celles dont le nom correspond au motif du dernier élément du chemin.
+     *
+     * @param input Un dossier, ou un chemin dont le nom de fichier est un motif (par exemple "planetes/*.jpg").
+     * @return Les images, triées par nom.
+     * @throws IOException Si le dossier ne peut pas être lu.
+     */
+    private static List<Path> listInputs(String input) throws IOException {
+        Path path = Paths.get(input);
+        Path directory;
+        String glob;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            glob = IMAGE_GLOB;
+        } else {
+            directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+            glob = path.getFileName().toString();
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) inputs.add(file);
+            }
+        }
+        Collections.sort(inputs);
+        return inputs;
+    }
+}
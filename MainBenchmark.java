@@ -0,0 +1,275 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Classe principale pour mesurer les temps des étapes coûteuses : flous, conversion CIELAB, classement par la palette,
+ * KMeans et DBSCAN (exact et approché), sur des planètes synthétiques de plusieurs tailles et sur les images "Planete *.jpg" fournies.
+ * Chaque mesure est précédée d'itérations de chauffe, puis répétée ; on affiche le temps moyen et le meilleur temps,
+ * la mémoire allouée (tous threads confondus) et le nombre de collections du ramasse-miettes par opération.
+ * Usage : java MainBenchmark [--iterations n] [--csv fichier.csv] [filtre sur le nom des mesures]
+ * ou, avec le pom.xml : mvn compile exec:java -Dexec.args="[options]"
+ */
+public class MainBenchmark {
+    /**
+     * Graine du générateur aléatoire, pour des entrées et des résultats reproductibles d'une exécution à l'autre.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Côtés des planètes synthétiques, en pixels.
+     */
+    private static final int[] SIZES = {512, 1024};
+
+    /**
+     * Niveaux de flou mesurés.
+     */
+    private static final int[] BLUR_LEVELS = {3, 7, 15};
+
+    /**
+     * Nombres de biomes mesurés pour KMeans.
+     */
+    private static final int[] K_VALUES = {5, 10};
+
+    /**
+     * Rayons de voisinage mesurés pour DBSCAN, sur les couleurs normalisées (MainDBSCAN utilise 0.1).
+     */
+    private static final double[] EPS_VALUES = {0.05, 0.1};
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    /**
+     * Résultats des mesures, conservés pour que le compilateur ne puisse pas supprimer les calculs.
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        int iterations = 5;
+        String csvPath = null;
+        String filter = "";
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--iterations")) iterations = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--csv")) csvPath = args[++i];
+            else filter = args[i];
+        }
+
+        try {
+            Map<String, BufferedImage> images = new LinkedHashMap<>();
+            for (int size : SIZES) {
+                images.put("synthetique-" + size, syntheticPlanet(size, SEED));
+            }
+            File[] fixtures = new File(".").listFiles((dir, name) -> name.startsWith("Planete ") && name.endsWith(".jpg"));
+            if (fixtures != null) {
+                Arrays.sort(fixtures);
+                for (File fixture : fixtures) {
+                    BufferedImage image = ImageIO.read(fixture);
+                    if (image != null) images.put(fixture.getName().replace(' ', '-'), image);
+                }
+            }
+
+            Map<String, Supplier<Object>> benchmarks = benchmarks(images);
+            List<String[]> rows = new ArrayList<>();
+            System.out.printf("%-62s %10s %10s %12s %6s%n", "Mesure", "Moy. (ms)", "Min. (ms)", "Alloué (Mo)", "GC");
+            for (Map.Entry<String, Supplier<Object>> benchmark : benchmarks.entrySet()) {
+                if (!benchmark.getKey().contains(filter)) continue;
+                String[] row = measure(benchmark.getKey(), benchmark.getValue(), iterations);
+                rows.add(row);
+                System.out.printf("%-62s %10s %10s %12s %6s%n", (Object[]) row);
+            }
+
+            if (csvPath != null) {
+                try (PrintWriter csv = new PrintWriter(csvPath, "UTF-8")) {
+                    csv.println("mesure,moyenne_ms,min_ms,alloue_mo,gc");
+                    for (String[] row : rows) {
+                        csv.println(String.join(",", row));
+                    }
+                }
+            }
+            System.out.println("(" + sink + ")");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Construit les mesures. Les entrées (images, histogrammes, pixels) sont préparées ici, hors du temps mesuré.
+     */
+    private static Map<String, Supplier<Object>> benchmarks(Map<String, BufferedImage> images) {
+        Map<String, Supplier<Object>> benchmarks = new LinkedHashMap<>();
+        PaletteClassifier warmClassifier = new PaletteClassifier(Palette.BIOME_COLORS, NormeCielab::distanceCouleur);
+
+        for (Map.Entry<String, BufferedImage> entry : images.entrySet()) {
+            String name = entry.getKey();
+            BufferedImage image = entry.getValue();
+            int[] pixels = PixelBuffer.of(image).getPixels();
+            ColorHistogram histogram = ColorHistogram.of(image);
+            PointMatrix points = histogram.getPoints();
+
+            for (int blurLevel : BLUR_LEVELS) {
+                benchmarks.put("FlouGaussien.applyGaussianBlur " + name + " flou=" + blurLevel,
+                        () -> FlouGaussien.applyGaussianBlur(image, blurLevel));
+                benchmarks.put("FlouMoyen.applyMeanBlur " + name + " flou=" + blurLevel,
+                        () -> FlouMoyen.applyMeanBlur(image, blurLevel));
+            }
+
+            benchmarks.put("Lab.rgb2lab " + name, () -> {
+                long sum = 0;
+                for (int rgb : pixels) {
+                    int[] lab = Lab.rgb2lab((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                    sum += lab[0] + lab[1] + lab[2];
+                }
+                return sum;
+            });
+            benchmarks.put("Lab.rgb2labPacked " + name, () -> {
+                long sum = 0;
+                for (int rgb : pixels) {
+                    sum += Lab.rgb2labPacked(rgb);
+                }
+                return sum;
+            });
+
+            // Table de la palette vide à chaque opération (coût des couleurs nouvelles), puis déjà remplie
+            benchmarks.put("PaletteClassifier.closestColor " + name + " table=vide", () -> {
+                PaletteClassifier classifier = new PaletteClassifier(Palette.BIOME_COLORS, NormeCielab::distanceCouleur);
+                return classifyAll(classifier, pixels);
+            });
+            benchmarks.put("PaletteClassifier.closestColor " + name + " table=remplie",
+                    () -> classifyAll(warmClassifier, pixels));
+
+            benchmarks.put("ColorHistogram.of " + name, () -> ColorHistogram.of(image));
+            for (int k : K_VALUES) {
+                for (KMeansStrategy strategy : new KMeansStrategy[]{KMeansStrategy.LLOYD, KMeansStrategy.HAMERLY}) {
+                    benchmarks.put("KMeans.cluster " + name + " k=" + k + " " + strategy.name().toLowerCase(),
+                            () -> new KMeans(k, 100, strategy, KMeansInitialisation.KMEANS_PLUS_PLUS, SEED)
+                                    .cluster(points, histogram.getCounts()));
+                }
+            }
+            for (double eps : EPS_VALUES) {
+                benchmarks.put("DBSCAN.cluster " + name + " eps=" + eps,
+                        () -> new DBSCAN(eps, 5).cluster(points, histogram.getCounts()));
+                benchmarks.put("GridDBSCAN.cluster " + name + " eps=" + eps,
+                        () -> new GridDBSCAN(eps, 5).cluster(points, histogram.getCounts()));
+            }
+        }
+        return benchmarks;
+    }
+
+    private static int[] classifyAll(PaletteClassifier classifier, int[] pixels) {
+        int[] colors = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            colors[i] = classifier.closestColor(pixels[i]);
+        }
+        return colors;
+    }
+
+    /**
+     * Exécute une mesure : itérations de chauffe, puis itérations mesurées.
+     *
+     * @return Le nom, le temps moyen, le meilleur temps, la mémoire allouée et le nombre de collections par opération.
+     */
+    private static String[] measure(String name, Supplier<Object> benchmark, int iterations) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            consume(benchmark.get());
+        }
+
+        long totalTime = 0;
+        long minTime = Long.MAX_VALUE;
+        long allocatedBefore = allocatedBytes();
+        long collectionsBefore = collectionCount();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            consume(benchmark.get());
+            long time = System.nanoTime() - start;
+            totalTime += time;
+            minTime = Math.min(minTime, time);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        long collections = collectionCount() - collectionsBefore;
+
+        return new String[]{
+                name,
+                String.format(Locale.ROOT, "%.2f", totalTime / 1e6 / iterations),
+                String.format(Locale.ROOT, "%.2f", minTime / 1e6),
+                allocated < 0 ? "?" : String.format(Locale.ROOT, "%.1f", allocated / 1048576.0 / iterations),
+                String.format(Locale.ROOT, "%.1f", (double) collections / iterations)
+        };
+    }
+
+    private static void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    /**
+     * Mémoire allouée depuis le démarrage par les threads encore vivants (dont ceux des pools de calcul),
+     * ou -1 si la JVM ne la mesure pas.
+     */
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemoryEnabled()) return -1;
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static long collectionCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * Méthode pour générer une planète synthétique : un disque sur fond noir, découpé en régions de la couleur
+     * d'un biome de la palette, avec un léger bruit sur chaque pixel.
+     *
+     * @param size Le côté de l'image, en pixels.
+     * @param seed La graine du générateur aléatoire.
+     * @return L'image de la planète.
+     */
+    public static BufferedImage syntheticPlanet(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int cells = 16;
+        int[] regions = new int[cells * cells];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = Palette.BIOME_COLORS[random.nextInt(Palette.BIOME_COLORS.length)].getRGB() & 0xFFFFFF;
+        }
+
+        PixelBuffer planet = new PixelBuffer(size, size);
+        int[] pixels = planet.getPixels();
+        double radius = size / 2.0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double dx = x + 0.5 - radius;
+                double dy = y + 0.5 - radius;
+                if (dx * dx + dy * dy > radius * radius) continue;
+
+                int color = regions[(y * cells / size) * cells + x * cells / size];
+                int r = clamp(((color >> 16) & 0xFF) + random.nextInt(-6, 7));
+                int g = clamp(((color >> 8) & 0xFF) + random.nextInt(-6, 7));
+                int b = clamp((color & 0xFF) + random.nextInt(-6, 7));
+                pixels[y * size + x] = (r << 16) | (g << 8) | b;
+            }
+        }
+        return planet.toImage();
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
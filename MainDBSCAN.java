@@ -1,110 +1,110 @@
 import javax.imageio.ImageIO;
-import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Classe principale pour exécuter le clustering avec l'algorithme DBSCAN.
  */
 public class MainDBSCAN {
+    /**
+     * Couleur de la palette la plus proche de chaque couleur, au sens de la distance euclidienne RGB.
+     */
+    private static final PaletteClassifier CLASSIFIER = new PaletteClassifier(Palette.BIOME_COLORS, MainDBSCAN::colorDistance);
 
     public static void main(String[] args) {
+        // Avec --labels, un seul fichier d'étiquettes compact remplace les images PNG ;
+        // avec --metrics fichier.json (ou .csv), la durée de chaque étape est écrite dans ce fichier ;
+        // avec --approx, les biomes sont détectés par le DBSCAN approché sur grille
+        boolean labelMapOutput = false;
+        boolean approximate = false;
+        Path metricsPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--labels")) labelMapOutput = true;
+            else if (args[i].equals("--approx")) approximate = true;
+            else if (args[i].equals("--metrics") && i + 1 < args.length) metricsPath = Paths.get(args[++i]);
+        }
+        Metrics metrics = metricsPath == null ? null : new Metrics();
+        MetricsListener listener = metrics == null ? MetricsListener.NONE : metrics;
         try {
             File input = new File("dbscan.jpg");
-            BufferedImage image = ImageIO.read(input);
+            BufferedImage image = MetricsListener.measure(listener, "décodage", () -> ImageIO.read(input));
 
-            // Extraire les données des pixels de l'image
-            double[][] pixelData = extractPixelData(image);
+            // Regrouper les pixels par couleur distincte
+            ColorHistogram histogram = MetricsListener.measure(listener, "histogramme", () -> ColorHistogram.of(image));
 
             // Appliquer l'algorithme de clustering pour détecter les biomes avec DBSCAN
-            ClusteringAlgorithm dbscanAlgorithm = new DBSCAN(0.1, 5); // Paramètres DBSCAN
+            ClusteringAlgorithm dbscanAlgorithm = approximate
+                    ? new GridDBSCAN(0.1, 5) : new DBSCAN(0.1, 5); // Paramètres DBSCAN
             EcosystemDetection dbscanDetection = new EcosystemDetection(dbscanAlgorithm);
-            int[] dbscanClusters = dbscanDetection.detectEcosystems(pixelData);
-
-            // Visualiser les clusters (biomes) avec DBSCAN
-            BufferedImage dbscanBiomeImage = visualizeClusters(image, dbscanClusters);
-            ImageIO.write(dbscanBiomeImage, "png", new File("biome_output_dbscan.png"));
-
-            // Détecter et afficher les écosystèmes pour chaque biome (DBSCAN)
-            visualizeEcosystems(image, dbscanClusters, "dbscan");
+            dbscanDetection.setMetricsListener(listener);
+            int[] dbscanClusters = dbscanDetection.detectEcosystems(histogram);
+
+            if (labelMapOutput) {
+                MetricsListener.measure(listener, "écosystèmes et encodage", () -> {
+                    writeLabelMap(image, dbscanClusters, "dbscan");
+                    return null;
+                });
+                System.out.println("Étiquettes générées avec DBSCAN avec succès.");
+            } else {
+                // Visualiser les clusters (biomes) avec DBSCAN
+                BufferedImage dbscanBiomeImage = MetricsListener.measure(listener, "palette",
+                        () -> visualizeClusters(image, dbscanClusters));
+                MetricsListener.measure(listener, "encodage",
+                        () -> ImageIO.write(dbscanBiomeImage, "png", new File("biome_output_dbscan.png")));
+
+                // Détecter et afficher les écosystèmes pour chaque biome (DBSCAN)
+                MetricsListener.measure(listener, "écosystèmes et encodage", () -> {
+                    visualizeEcosystems(image, dbscanClusters, "dbscan");
+                    return null;
+                });
+
+                System.out.println("Images générées avec DBSCAN avec succès.");
+            }
 
-            System.out.println("Images générées avec DBSCAN avec succès.");
+            if (metrics != null) {
+                metrics.write(metricsPath);
+            }
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private static double[][] extractPixelData(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        double[][] data = new double[width * height][3];
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = image.getRGB(x, y);
-                Color color = new Color(rgb);
-                data[y * width + x][0] = color.getRed() / 255.0;
-                data[y * width + x][1] = color.getGreen() / 255.0;
-                data[y * width + x][2] = color.getBlue() / 255.0;
-            }
-        }
-
-        return data;
-    }
-
     private static BufferedImage visualizeClusters(BufferedImage image, int[] clusters) {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage clusteredImage = new BufferedImage(width, height, image.getType());
+        int[] pixels = PixelBuffer.of(image).getPixels();
+        PixelBuffer clusteredImage = new PixelBuffer(width, height);
+        int[] row = new int[width];
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 int clusterId = clusters[y * width + x];
-                Color closestColor = findClosestColor(new Color(image.getRGB(x, y)));
-                clusteredImage.setRGB(x, y, closestColor.getRGB());
-            }
-        }
-
-        return clusteredImage;
-    }
-
-    /**
-     * Trouver la couleur la plus proche dans la palette de biomes.
-     *
-     * @param color La couleur d'origine.
-     * @return La couleur la plus proche dans la palette.
-     */
-    private static Color findClosestColor(Color color) {
-        Color closestColor = null;
-        double minDistance = Double.MAX_VALUE;
-
-        for (Color paletteColor : Palette.BIOME_COLORS) {
-            double distance = colorDistance(color, paletteColor);
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestColor = paletteColor;
+                row[x] = CLASSIFIER.closestColor(pixels[y * width + x]);
             }
+            clusteredImage.setRow(y, row);
         }
 
-        return closestColor;
+        return clusteredImage.toImage();
     }
 
     /**
      * Calculer la distance entre deux couleurs.
      *
-     * @param c1 La première couleur.
-     * @param c2 La deuxième couleur.
+     * @param rgb1 La première couleur, au format 0xRRGGBB.
+     * @param rgb2 La deuxième couleur, au format 0xRRGGBB.
      * @return La distance euclidienne entre les deux couleurs.
      */
-    private static double colorDistance(Color c1, Color c2) {
-        int r1 = c1.getRed();
-        int g1 = c1.getGreen();
-        int b1 = c1.getBlue();
-        int r2 = c2.getRed();
-        int g2 = c2.getGreen();
-        int b2 = c2.getBlue();
+    private static double colorDistance(int rgb1, int rgb2) {
+        int r1 = (rgb1 >> 16) & 0xFF;
+        int g1 = (rgb1 >> 8) & 0xFF;
+        int b1 = rgb1 & 0xFF;
+        int r2 = (rgb2 >> 16) & 0xFF;
+        int g2 = (rgb2 >> 8) & 0xFF;
+        int b2 = rgb2 & 0xFF;
         return Math.sqrt(Math.pow(r1 - r2, 2) + Math.pow(g1 - g2, 2) + Math.pow(b1 - b2, 2));
     }
 
@@ -112,30 +112,24 @@ public class MainDBSCAN {
         int width = image.getWidth();
         int height = image.getHeight();
 
-        for (int biome = 0; biome < Palette.BIOME_COLORS.length; biome++) {
-            double[][] positions = new double[width * height][2];
-            int count = 0;
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    if (clusters[y * width + x] == biome) {
-                        positions[count][0] = x;
-                        positions[count][1] = y;
-                        count++;
-                    }
-                }
-            }
-            if (count == 0) continue;
+        int[] ecosystems = detectEcosystems(clusters, width, height);
+
+        PixelBuffer source = PixelBuffer.of(image);
+
+        // Regrouper les pixels par biome en un seul parcours
+        BiomeBuckets buckets = new BiomeBuckets(clusters, Palette.BIOME_COLORS.length, width);
 
-            double[][] biomePositions = new double[count][2];
-            System.arraycopy(positions, 0, biomePositions, 0, count);
+        for (int biome = 0; biome < buckets.size(); biome++) {
+            int count = buckets.count(biome);
+            if (count == 0) continue;
 
-            // Appliquer DBSCAN pour détecter les écosystèmes
-            ClusteringAlgorithm ecosystemAlgorithm = new DBSCAN(5.0, 3); // Paramètres DBSCAN pour les écosystèmes
-            EcosystemDetection ecosystemDetection = new EcosystemDetection(ecosystemAlgorithm);
-            int[] ecosystemClusters = ecosystemDetection.detectEcosystems(biomePositions);
+            int[] ecosystemClusters = new int[count];
+            for (int i = 0; i < count; i++) {
+                ecosystemClusters[i] = ecosystems[buckets.getIndex(biome, i)];
+            }
 
             // Visualiser les écosystèmes en utilisant la couleur la plus proche dans la palette
-            BufferedImage ecosystemImage = visualizeEcosystemClusters(image, biomePositions, ecosystemClusters);
+            BufferedImage ecosystemImage = visualizeEcosystemClusters(source, buckets, biome, ecosystemClusters);
             try {
                 ImageIO.write(ecosystemImage,"png", new File("ecosystem_output_" + algorithmType + "_biome_" + biome + ".png"));
             } catch (IOException e) {
@@ -145,26 +139,64 @@ public class MainDBSCAN {
     }
 
     /**
-     * Méthode pour visualiser les écosystèmes en coloriant chaque pixel selon son écosystème, avec la couleur la plus proche dans la palette.
+     * Méthode pour détecter les écosystèmes de tous les biomes en un seul parcours.
+     *
+     * @param clusters Tableau contenant les numéros de cluster pour chaque pixel.
+     * @param width La largeur de l'image.
+     * @param height La hauteur de l'image.
+     * @return Le numéro d'écosystème de chaque pixel.
+     */
+    private static int[] detectEcosystems(int[] clusters, int width, int height) {
+        // Composantes connexes de rayon 5, comme le voisinage de DBSCAN sur les positions,
+        // les composantes de moins de 3 pixels étant du bruit
+        ConnectedComponents ecosystemAlgorithm = new ConnectedComponents(5.0, 3);
+        return ecosystemAlgorithm.label(clusters, width, height);
+    }
+
+    /**
+     * Méthode pour écrire les biomes et les écosystèmes dans un seul fichier d'étiquettes compact,
+     * exportable ensuite en images PNG avec {@link MainExport}.
      *
      * @param image L'image originale.
-     * @param positions Les positions des pixels appartenant aux écosystèmes.
-     * @param clusters Tableau contenant les numéros de cluster pour chaque position.
-     * @return Une nouvelle image avec les écosystèmes colorés.
+     * @param clusters Tableau contenant les numéros de cluster pour chaque pixel.
+     * @param algorithmType Le type d'algorithme utilisé (pour nommer le fichier de sortie).
+     * @throws IOException Si le fichier ne peut pas être écrit.
      */
-    private static BufferedImage visualizeEcosystemClusters(BufferedImage image, double[][] positions, int[] clusters) {
+    private static void writeLabelMap(BufferedImage image, int[] clusters, String algorithmType) throws IOException {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage ecosystemImage = new BufferedImage(width, height, image.getType());
+        int[] ecosystems = detectEcosystems(clusters, width, height);
+
+        // Chaque biome prend la couleur de la palette la plus proche de la majorité de ses pixels
+        int k = 0;
+        for (int cluster : clusters) {
+            k = Math.max(k, cluster + 1);
+        }
+        int[] colors = CLASSIFIER.dominantColors(PixelBuffer.of(image).getPixels(), clusters, k);
+        LabelMap labelMap = new LabelMap(width, height, clusters, ecosystems, colors);
+        labelMap.write(Paths.get("label_map_" + algorithmType + ".biomes"));
+    }
 
-        for (int i = 0; i < positions.length; i++) {
-            int x = (int) positions[i][0];
-            int y = (int) positions[i][1];
-            Color closestColor = findClosestColor(new Color(image.getRGB(x, y)));
-            ecosystemImage.setRGB(x, y, closestColor.getRGB());
+    /**
+     * Méthode pour visualiser les écosystèmes en coloriant chaque pixel selon son écosystème, avec la couleur la plus proche dans la palette.
+     *
+     * @param source Les pixels de l'image originale.
+     * @param buckets Les pixels regroupés par biome.
+     * @param biome Le biome dont les écosystèmes sont visualisés.
+     * @param clusters Tableau contenant les numéros de cluster pour chaque pixel du biome.
+     * @return Une nouvelle image avec les écosystèmes colorés.
+     */
+    private static BufferedImage visualizeEcosystemClusters(PixelBuffer source, BiomeBuckets buckets, int biome, int[] clusters) {
+        int[] pixels = source.getPixels();
+        PixelBuffer ecosystemImage = new PixelBuffer(source.getWidth(), source.getHeight());
+        int[] target = ecosystemImage.getPixels();
+
+        for (int i = 0; i < buckets.count(biome); i++) {
+            int index = buckets.getIndex(biome, i);
+            target[index] = CLASSIFIER.closestColor(pixels[index]);
         }
 
-        return ecosystemImage;
+        return ecosystemImage.toImage();
     }
 }
 
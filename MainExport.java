@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Classe principale pour exporter en images PNG un fichier d'étiquettes écrit avec l'option --labels
+ * de MainKMeans ou de MainDBSCAN, ou par MainBatch : l'image des biomes et une image des écosystèmes par biome.
+ * Usage : java MainExport &lt;fichier d'étiquettes&gt; [dossier de sortie]
+ */
+public class MainExport {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage : java MainExport <fichier d'étiquettes> [dossier de sortie]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path outputDirectory = Paths.get(args.length > 1 ? args[1] : ".");
+
+        // Le type d'algorithme est repris du nom du fichier (label_map_<type>.biomes), sinon le nom entier est gardé
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String algorithmType = (dot > 0 ? name.substring(0, dot) : name).replaceFirst("^label_map_", "");
+
+        try {
+            LabelMap labelMap = LabelMap.read(input);
+            Files.createDirectories(outputDirectory);
+            labelMap.exportPngs(outputDirectory, algorithmType);
+            System.out.println("Images exportées dans " + outputDirectory + " avec succès.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
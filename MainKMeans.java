@@ -1,65 +1,75 @@
 import javax.imageio.ImageIO;
-import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Classe principale pour traiter l'image, détecter les biomes et les écosystèmes, et afficher les résultats.
  */
 public class MainKMeans {
+    /**
+     * Graine du générateur aléatoire, pour des résultats reproductibles d'une exécution à l'autre.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Couleur de la palette la plus proche de chaque couleur, au sens de la distance CIELAB.
+     */
+    private static final PaletteClassifier CLASSIFIER = new PaletteClassifier(Palette.BIOME_COLORS, NormeCielab::distanceCouleur);
 
     public static void main(String[] args) {
+        // Avec --labels, un seul fichier d'étiquettes compact remplace les images PNG ;
+        // avec --metrics fichier.json (ou .csv), la durée de chaque étape est écrite dans ce fichier
+        boolean labelMapOutput = false;
+        Path metricsPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--labels")) labelMapOutput = true;
+            else if (args[i].equals("--metrics") && i + 1 < args.length) metricsPath = Paths.get(args[++i]);
+        }
+        Metrics metrics = metricsPath == null ? null : new Metrics();
+        MetricsListener listener = metrics == null ? MetricsListener.NONE : metrics;
         try {
             File input = new File("Planete 1.jpg");
-            BufferedImage image = ImageIO.read(input);
+            BufferedImage image = MetricsListener.measure(listener, "décodage", () -> ImageIO.read(input));
 
-            // Extraire les données des pixels de l'image
-            double[][] pixelData = extractPixelData(image);
+            // Regrouper les pixels par couleur distincte
+            ColorHistogram histogram = MetricsListener.measure(listener, "histogramme", () -> ColorHistogram.of(image));
 
             // Appliquer l'algorithme de clustering pour détecter les biomes avec KMeans
-            ClusteringAlgorithm kmeansAlgorithm = new KMeans(10, 100); // 10 clusters pour les biomes
+            ClusteringAlgorithm kmeansAlgorithm = new ParallelKMeans(10, 100, KMeansStrategy.HAMERLY,
+                    KMeansInitialisation.KMEANS_PLUS_PLUS, SEED, ForkJoinPool.commonPool()); // 10 clusters pour les biomes
             EcosystemDetection kmeansDetection = new EcosystemDetection(kmeansAlgorithm);
-            int[] kmeansClusters = kmeansDetection.detectEcosystems(pixelData);
-
-            // Visualiser les clusters (biomes) avec KMeans
-            BufferedImage kmeansBiomeImage = visualizeClusters(image, kmeansClusters, 10);
-            ImageIO.write(kmeansBiomeImage, "png", new File("biome_output_kmeans.png"));
-
-            // Détecter et afficher les écosystèmes pour chaque biome (KMeans)
-            visualizeEcosystems(image, kmeansClusters, 10, "kmeans");
+            kmeansDetection.setMetricsListener(listener);
+            int[] kmeansClusters = kmeansDetection.detectEcosystems(histogram);
+
+            if (labelMapOutput) {
+                writeLabelMap(image, kmeansClusters, 10, "kmeans", listener);
+                System.out.println("Étiquettes générées avec KMeans avec succès.");
+            } else {
+                // Visualiser les clusters (biomes) avec KMeans
+                BufferedImage kmeansBiomeImage = MetricsListener.measure(listener, "palette",
+                        () -> visualizeClusters(image, kmeansClusters, 10));
+                MetricsListener.measure(listener, "encodage",
+                        () -> ImageIO.write(kmeansBiomeImage, "png", new File("biome_output_kmeans.png")));
+
+                // Détecter et afficher les écosystèmes pour chaque biome (KMeans)
+                visualizeEcosystems(image, kmeansClusters, 10, "kmeans", listener);
+
+                System.out.println("Images générées avec KMeans avec succès.");
+            }
 
-            System.out.println("Images générées avec KMeans avec succès.");
+            if (metrics != null) {
+                metrics.write(metricsPath);
+            }
 
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    /**
-     * Méthode pour extraire les données des pixels de l'image.
-     *
-     * @param image L'image dont on veut extraire les données des pixels.
-     * @return Un tableau 2D contenant les valeurs des couleurs normalisées des pixels.
-     */
-    private static double[][] extractPixelData(BufferedImage image) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        double[][] data = new double[width * height][3];
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int rgb = image.getRGB(x, y);
-                Color color = new Color(rgb);
-                data[y * width + x][0] = color.getRed() / 255.0;
-                data[y * width + x][1] = color.getGreen() / 255.0;
-                data[y * width + x][2] = color.getBlue() / 255.0;
-            }
-        }
-
-        return data;
-    }
-
     /**
      * Méthode pour visualiser les clusters en coloriant chaque pixel selon son cluster.
      *
@@ -71,38 +81,19 @@ public class MainKMeans {
     private static BufferedImage visualizeClusters(BufferedImage image, int[] clusters, int k) {
         int width = image.getWidth();
         int height = image.getHeight();
-        BufferedImage clusteredImage = new BufferedImage(width, height, image.getType());
+        int[] pixels = PixelBuffer.of(image).getPixels();
+        PixelBuffer clusteredImage = new PixelBuffer(width, height);
+        int[] row = new int[width];
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 int clusterId = clusters[y * width + x];
-                Color closestColor = findClosestColor(new Color(image.getRGB(x, y)));
-                clusteredImage.setRGB(x, y, closestColor.getRGB());
+                row[x] = CLASSIFIER.closestColor(pixels[y * width + x]);
             }
+            clusteredImage.setRow(y, row);
         }
 
-        return clusteredImage;
-    }
-
-    /**
-     * Trouver la couleur la plus proche dans la palette de biomes.
-     *
-     * @param color La couleur d'origine.
-     * @return La couleur la plus proche dans la palette.
-     */
-    private static Color findClosestColor(Color color) {
-        Color closestColor = null;
-        double minDistance = Double.MAX_VALUE;
-
-        for (Color paletteColor : Palette.BIOME_COLORS) {
-            double distance = NormeCielab.distanceCouleur(color, paletteColor);
-            if (distance < minDistance) {
-                minDistance = distance;
-                closestColor = paletteColor;
-            }
-        }
-
-        return closestColor;
+        return clusteredImage.toImage();
     }
 
     /**
@@ -112,36 +103,25 @@ public class MainKMeans {
      * @param clusters Tableau contenant les numéros de cluster pour chaque pixel.
      * @param k Le nombre de biomes.
      * @param algorithmType Le type d'algorithme utilisé (pour nommer les fichiers de sortie).
+     * @param listener Le listener qui reçoit les mesures.
      */
-    private static void visualizeEcosystems(BufferedImage image, int[] clusters, int k, String algorithmType) {
-        int width = image.getWidth();
-        int height = image.getHeight();
+    private static void visualizeEcosystems(BufferedImage image, int[] clusters, int k, String algorithmType,
+                                            MetricsListener listener) {
+        PixelBuffer source = PixelBuffer.of(image);
 
-        for (int biome = 0; biome < k; biome++) {
-            // Extraire les positions des pixels appartenant au biome
-            double[][] positions = new double[width * height][2];
-            int count = 0;
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    if (clusters[y * width + x] == biome) {
-                        positions[count][0] = x;
-                        positions[count][1] = y;
-                        count++;
-                    }
-                }
-            }
-            double[][] biomePositions = new double[count][2];
-            System.arraycopy(positions, 0, biomePositions, 0, count);
+        // Regrouper les pixels par biome en un seul parcours
+        BiomeBuckets buckets = new BiomeBuckets(clusters, k, image.getWidth());
 
-            // Appliquer un nouvel algorithme de clustering pour détecter les écosystèmes
-            ClusteringAlgorithm ecosystemAlgorithm = new KMeans(3, 100); // 3 clusters pour les écosystèmes
-            EcosystemDetection ecosystemDetection = new EcosystemDetection(ecosystemAlgorithm);
-            int[] ecosystemClusters = ecosystemDetection.detectEcosystems(biomePositions);
+        int[][] ecosystemClusters = detectEcosystems(buckets, listener);
 
+        for (int biome = 0; biome < k; biome++) {
             // Visualiser les écosystèmes en utilisant la couleur la plus proche dans la palette
-            BufferedImage ecosystemImage = visualizeEcosystemClusters(image, biomePositions, ecosystemClusters);
+            int b = biome;
+            BufferedImage ecosystemImage = MetricsListener.measure(listener, "palette",
+                    () -> visualizeEcosystemClusters(source, buckets, b, ecosystemClusters[b]));
             try {
-                ImageIO.write(ecosystemImage, "png", new File("ecosystem_output_" + algorithmType + "_biome_" + biome + ".png"));
+                MetricsListener.measure(listener, "encodage", () -> ImageIO.write(ecosystemImage, "png",
+                        new File("ecosystem_output_" + algorithmType + "_biome_" + b + ".png")));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -149,25 +129,68 @@ public class MainKMeans {
     }
 
     /**
-     * Méthode pour visualiser les écosystèmes en coloriant chaque pixel selon son écosystème, avec la couleur la plus proche dans la palette.
+     * Méthode pour détecter les écosystèmes de chaque biome, plusieurs biomes à la fois.
+     *
+     * @param buckets Les pixels regroupés par biome.
+     * @param listener Le listener qui reçoit les mesures.
+     * @return Pour chaque biome, le numéro d'écosystème de chacun de ses pixels.
+     */
+    private static int[][] detectEcosystems(BiomeBuckets buckets, MetricsListener listener) {
+        // Appliquer un nouvel algorithme de clustering pour détecter les écosystèmes
+        return EcosystemDetection.detectEcosystems(buckets,
+                () -> new KMeans(3, 100), Runtime.getRuntime().availableProcessors(), listener); // 3 clusters pour les écosystèmes
+    }
+
+    /**
+     * Méthode pour écrire les biomes et les écosystèmes dans un seul fichier d'étiquettes compact,
+     * exportable ensuite en images PNG avec {@link MainExport}.
      *
      * @param image L'image originale.
-     * @param positions Les positions des pixels appartenant aux écosystèmes.
-     * @param clusters Tableau contenant les numéros de cluster pour chaque position.
-     * @return Une nouvelle image avec les écosystèmes colorés.
+     * @param clusters Tableau contenant les numéros de cluster pour chaque pixel.
+     * @param k Le nombre de biomes.
+     * @param algorithmType Le type d'algorithme utilisé (pour nommer le fichier de sortie).
+     * @param listener Le listener qui reçoit les mesures.
+     * @throws IOException Si le fichier ne peut pas être écrit.
      */
-    private static BufferedImage visualizeEcosystemClusters(BufferedImage image, double[][] positions, int[] clusters) {
-        int width = image.getWidth();
-        int height = image.getHeight();
-        BufferedImage ecosystemImage = new BufferedImage(width, height, image.getType());
+    private static void writeLabelMap(BufferedImage image, int[] clusters, int k, String algorithmType,
+                                      MetricsListener listener) throws IOException {
+        BiomeBuckets buckets = new BiomeBuckets(clusters, k, image.getWidth());
+        int[][] ecosystemClusters = detectEcosystems(buckets, listener);
+        int[] ecosystems = new int[clusters.length];
+        for (int biome = 0; biome < k; biome++) {
+            for (int i = 0; i < buckets.count(biome); i++) {
+                ecosystems[buckets.getIndex(biome, i)] = ecosystemClusters[biome][i];
+            }
+        }
 
-        for (int i = 0; i < positions.length; i++) {
-            int x = (int) positions[i][0];
-            int y = (int) positions[i][1];
-            Color closestColor = findClosestColor(new Color(image.getRGB(x, y)));
-            ecosystemImage.setRGB(x, y, closestColor.getRGB());
+        // Chaque biome prend la couleur de la palette la plus proche de la majorité de ses pixels
+        int[] colors = CLASSIFIER.dominantColors(PixelBuffer.of(image).getPixels(), clusters, k);
+        LabelMap labelMap = new LabelMap(image.getWidth(), image.getHeight(), clusters, ecosystems, colors);
+        MetricsListener.measure(listener, "encodage", () -> {
+            labelMap.write(Paths.get("label_map_" + algorithmType + ".biomes"));
+            return null;
+        });
+    }
+
+    /**
+     * Méthode pour visualiser les écosystèmes en coloriant chaque pixel selon son écosystème, avec la couleur la plus proche dans la palette.
+     *
+     * @param source Les pixels de l'image originale.
+     * @param buckets Les pixels regroupés par biome.
+     * @param biome Le biome dont les écosystèmes sont visualisés.
+     * @param clusters Tableau contenant les numéros de cluster pour chaque pixel du biome.
+     * @return Une nouvelle image avec les écosystèmes colorés.
+     */
+    private static BufferedImage visualizeEcosystemClusters(PixelBuffer source, BiomeBuckets buckets, int biome, int[] clusters) {
+        int[] pixels = source.getPixels();
+        PixelBuffer ecosystemImage = new PixelBuffer(source.getWidth(), source.getHeight());
+        int[] target = ecosystemImage.getPixels();
+
+        for (int i = 0; i < buckets.count(biome); i++) {
+            int index = buckets.getIndex(biome, i);
+            target[index] = CLASSIFIER.closestColor(pixels[index]);
         }
 
-        return ecosystemImage;
+        return ecosystemImage.toImage();
     }
 }
@@ -0,0 +1,84 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Classe principale pour détecter les biomes d'une très grande image tuile par tuile, sans la charger en mémoire.
+ * Les étiquettes sont écrites dans un fichier (un entier par pixel, ligne par ligne).
+ * Sans fichier du modèle, les biomes sont appris à chaque exécution et rien d'autre n'est écrit.
+ * Avec un fichier du modèle, il est rechargé s'il existe déjà ; sinon les biomes sont appris
+ * et le modèle est enregistré dans ce fichier pour les exécutions suivantes.
+ * Usage : java MainTuiles [image] [fichier des étiquettes] [fichier du modèle]
+ */
+public class MainTuiles {
+    /**
+     * Graine du générateur aléatoire, pour des résultats reproductibles d'une exécution à l'autre.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Côté des tuiles, en pixels.
+     */
+    private static final int TILE_SIZE = 512;
+
+    /**
+     * Nombre de pixels visé pour l'image réduite sur laquelle les centroids sont appris.
+     */
+    private static final int PREVIEW_PIXELS = 1_000_000;
+
+    /**
+     * Couleur de la palette la plus proche de chaque couleur, au sens de la distance CIELAB.
+     */
+    private static final PaletteClassifier CLASSIFIER = new PaletteClassifier(Palette.BIOME_COLORS, NormeCielab::distanceCouleur);
+
+    public static void main(String[] args) {
+        String imagePath = args.length > 0 ? args[0] : "Planete 2.jpg";
+        Path labelsPath = Paths.get(args.length > 1 ? args[1] : "biome_labels.bin");
+        Path modelPath = args.length > 2 ? Paths.get(args[2]) : null;
+        boolean reuseModel = modelPath != null && Files.exists(modelPath);
+        int blurLevel = 7; // Niveau de flou gaussien appliqué avant l'étiquetage
+
+        try (TiledImageReader reader = new TiledImageReader(new File(imagePath));
+             LabelStore labels = LabelStore.create(labelsPath, reader.getWidth(), reader.getHeight())) {
+            int width = reader.getWidth();
+            int height = reader.getHeight();
+
+            TiledPipeline pipeline = new TiledPipeline(TILE_SIZE, blurLevel);
+            BiomeModel model;
+            if (reuseModel) {
+                model = BiomeModel.load(modelPath);
+            } else {
+                // Apprendre les centroids des biomes sur une version sous-échantillonnée de l'image floutée,
+                // comme les tuiles qui seront étiquetées ; l'image est alors décodée et floutée deux fois,
+                // ce qu'évite un modèle déjà enregistré
+                int step = (int) Math.max(1, Math.ceil(Math.sqrt((double) width * height / PREVIEW_PIXELS)));
+                PixelBuffer preview = pipeline.readBlurredSubsampled(reader, step);
+                MiniBatchKMeans kmeans = new MiniBatchKMeans(10, 1024, 200, SEED); // 10 clusters pour les biomes
+                model = BiomeModel.of(kmeans.fit(PointSource.ofImage(preview.toImage())), CLASSIFIER);
+                if (modelPath != null) {
+                    model.write(modelPath);
+                    System.out.println("Modèle des biomes écrit dans " + modelPath + ".");
+                }
+            }
+
+            // Flouter et assigner chaque tuile, puis écrire ses étiquettes
+            pipeline.run(reader, labels, model::predict);
+
+            // Compter les pixels de chaque biome en relisant le fichier
+            long[] counts = new long[model.size()];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    counts[labels.get(x, y)]++;
+                }
+            }
+            for (int biome = 0; biome < counts.length; biome++) {
+                System.out.println("Biome " + biome + " : " + counts[biome] + " pixels");
+            }
+            System.out.println("Étiquettes écrites dans " + labelsPath + " avec succès.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classe qui enregistre les mesures d'une ou plusieurs détections et les écrit au format JSON ou CSV.
+ * Les étapes de même nom sont cumulées. Les itérations de KMeans et les totaux de DBSCAN sont enregistrés
+ * par exécution : une exécution est identifiée par son nom (préfixé par ses scopes, voir {@link MetricsListener#scope}),
+ * suivi de "#2", "#3"... quand une exécution de même nom recommence.
+ * Les méthodes sont synchronisées : une même instance peut recevoir les mesures de plusieurs threads,
+ * par exemple des biomes traités en parallèle, chacun dans son scope.
+ * <p>
+ * La mémoire allouée d'une étape est celle du thread qui l'a exécutée : les allocations des threads auxquels
+ * l'étape confie du travail (le pool commun de ParallelKMeans, par exemple) n'y sont pas comptées.
+ */
+public class Metrics implements MetricsListener {
+    /**
+     * Mesures cumulées d'une étape.
+     */
+    private static class StageTotals {
+        private long count;
+        private long nanos;
+        private long allocatedBytes;
+    }
+
+    /**
+     * Mesures d'une exécution de KMeans : une ligne par itération (numéro, points réassignés,
+     * déplacement des centroids, distances calculées).
+     */
+    private static class KMeansRun {
+        private List<double[]> iterations = new ArrayList<>();
+        private long distanceComputations;
+    }
+
+    /**
+     * Mesures d'une exécution de DBSCAN.
+     */
+    private static class DBSCANRun {
+        private long regionQueries;
+        private long totalNeighbors;
+        private int maxNeighbors;
+    }
+
+    private Map<String, StageTotals> stages = new LinkedHashMap<>();
+    private Map<String, KMeansRun> kmeansRuns = new LinkedHashMap<>();
+    private Map<String, KMeansRun> currentKMeansRuns = new LinkedHashMap<>();
+    private Map<String, DBSCANRun> dbscanRuns = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void stageCompleted(String stage, long nanos, long allocatedBytes) {
+        StageTotals totals = stages.computeIfAbsent(stage, s -> new StageTotals());
+        totals.count++;
+        totals.nanos += nanos;
+        if (allocatedBytes > 0) totals.allocatedBytes += allocatedBytes;
+    }
+
+    @Override
+    public synchronized void kmeansIteration(String run, int iteration, int reassigned, double centroidShift,
+                                             long distanceComputations) {
+        KMeansRun current = currentKMeansRuns.get(run);
+        if (current == null || iteration == 1) {
+            current = new KMeansRun();
+            kmeansRuns.put(uniqueName(kmeansRuns, run), current);
+            currentKMeansRuns.put(run, current);
+        }
+        current.iterations.add(new double[]{iteration, reassigned, centroidShift, distanceComputations});
+        current.distanceComputations += distanceComputations;
+    }
+
+    @Override
+    public synchronized void dbscanCompleted(String run, long regionQueries, long totalNeighbors, int maxNeighbors) {
+        DBSCANRun completed = new DBSCANRun();
+        completed.regionQueries = regionQueries;
+        completed.totalNeighbors = totalNeighbors;
+        completed.maxNeighbors = maxNeighbors;
+        dbscanRuns.put(uniqueName(dbscanRuns, run), completed);
+    }
+
+    /**
+     * Méthode pour obtenir les mesures au format JSON : les étapes, puis les itérations de KMeans et les totaux
+     * de DBSCAN de chaque exécution. Le champ "threadAllocatedBytes" d'une étape ne compte que le thread
+     * qui l'a exécutée.
+     *
+     * @return Le document JSON.
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"stages\": [");
+        String separator = "\n";
+        for (Map.Entry<String, StageTotals> stage : stages.entrySet()) {
+            StageTotals totals = stage.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "    {\"name\": \"%s\", \"count\": %d, \"millis\": %.3f, \"threadAllocatedBytes\": %d}",
+                    escape(stage.getKey()), totals.count, totals.nanos / 1e6, totals.allocatedBytes));
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"kmeans\": [");
+        separator = "\n";
+        for (Map.Entry<String, KMeansRun> run : kmeansRuns.entrySet()) {
+            json.append(separator).append("    {\"run\": \"").append(escape(run.getKey()))
+                    .append("\", \"distanceComputations\": ").append(run.getValue().distanceComputations)
+                    .append(", \"iterations\": [");
+            String iterationSeparator = "\n";
+            for (double[] iteration : run.getValue().iterations) {
+                json.append(iterationSeparator).append(String.format(Locale.ROOT,
+                        "      {\"iteration\": %d, \"reassigned\": %d, \"centroidShift\": %.6g, \"distanceComputations\": %d}",
+                        (long) iteration[0], (long) iteration[1], iteration[2], (long) iteration[3]));
+                iterationSeparator = ",\n";
+            }
+            json.append("\n    ]}");
+            separator = ",\n";
+        }
+        json.append("\n  ],\n  \"dbscan\": [");
+        separator = "\n";
+        for (Map.Entry<String, DBSCANRun> run : dbscanRuns.entrySet()) {
+            DBSCANRun totals = run.getValue();
+            json.append(separator).append(String.format(Locale.ROOT,
+                    "    {\"run\": \"%s\", \"regionQueries\": %d, \"meanNeighbors\": %.2f, \"maxNeighbors\": %d}",
+                    escape(run.getKey()), totals.regionQueries,
+                    totals.regionQueries == 0 ? 0.0 : (double) totals.totalNeighbors / totals.regionQueries,
+                    totals.maxNeighbors));
+            separator = ",\n";
+        }
+        json.append("\n  ]");
+        return json.append("\n}\n").toString();
+    }
+
+    /**
+     * Méthode pour obtenir les mesures au format CSV, une ligne par mesure : type, nom, valeur.
+     * Les mesures de KMeans sont nommées "exécution/iteration_n", celles de DBSCAN par le nom de l'exécution ;
+     * "stage_thread_allocated_bytes" ne compte que le thread qui a exécuté l'étape.
+     *
+     * @return Le document CSV.
+     */
+    public synchronized String toCsv() {
+        StringBuilder csv = new StringBuilder("type,name,value\n");
+        for (Map.Entry<String, StageTotals> stage : stages.entrySet()) {
+            StageTotals totals = stage.getValue();
+            String name = stage.getKey().replace(',', ' ');
+            csv.append("stage_count,").append(name).append(',').append(totals.count).append('\n');
+            csv.append("stage_millis,").append(name).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f", totals.nanos / 1e6)).append('\n');
+            csv.append("stage_thread_allocated_bytes,").append(name).append(',').append(totals.allocatedBytes).append('\n');
+        }
+        for (Map.Entry<String, KMeansRun> run : kmeansRuns.entrySet()) {
+            String runName = run.getKey().replace(',', ' ');
+            for (double[] iteration : run.getValue().iterations) {
+                String name = runName + "/iteration_" + (long) iteration[0];
+                csv.append("kmeans_reassigned,").append(name).append(',').append((long) iteration[1]).append('\n');
+                csv.append("kmeans_centroid_shift,").append(name).append(',')
+                        .append(String.format(Locale.ROOT, "%.6g", iteration[2])).append('\n');
+                csv.append("kmeans_distance_computations,").append(name).append(',').append((long) iteration[3]).append('\n');
+            }
+        }
+        for (Map.Entry<String, DBSCANRun> run : dbscanRuns.entrySet()) {
+            String name = run.getKey().replace(',', ' ');
+            DBSCANRun totals = run.getValue();
+            csv.append("dbscan_region_queries,").append(name).append(',').append(totals.regionQueries).append('\n');
+            csv.append("dbscan_total_neighbors,").append(name).append(',').append(totals.totalNeighbors).append('\n');
+            csv.append("dbscan_max_neighbors,").append(name).append(',').append(totals.maxNeighbors).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Méthode pour écrire les mesures dans un fichier, au format CSV si son nom se termine par ".csv", JSON sinon.
+     *
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public void write(Path path) throws IOException {
+        String content = path.getFileName().toString().endsWith(".csv") ? toCsv() : toJson();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Renvoie name, ou name suivi de "#2", "#3"... si une exécution porte déjà ce nom.
+     */
+    private static String uniqueName(Map<String, ?> runs, String name) {
+        if (!runs.containsKey(name)) return name;
+        int number = 2;
+        while (runs.containsKey(name + "#" + number)) {
+            number++;
+        }
+        return name + "#" + number;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
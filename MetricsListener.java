@@ -0,0 +1,120 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Interface recevant les mesures d'une détection : durée de chaque étape, itérations de KMeans, requêtes de DBSCAN.
+ * Toutes les méthodes ne font rien par défaut ; {@link #NONE} est utilisé quand les mesures sont désactivées,
+ * et les algorithmes ne calculent les valeurs coûteuses (déplacement des centroids) que pour un autre listener.
+ * Les mesures d'une exécution lancée en parallèle d'autres (un biome, par exemple) passent par {@link #scope},
+ * qui préfixe les noms des étapes et des exécutions pour qu'elles ne se mélangent pas.
+ */
+public interface MetricsListener {
+    /**
+     * Listener qui ignore toutes les mesures.
+     */
+    MetricsListener NONE = new MetricsListener() {
+    };
+
+    /**
+     * Étape d'une détection dont on mesure la durée.
+     *
+     * @param <T> Le type du résultat de l'étape.
+     * @param <E> L'exception que l'étape peut lever.
+     */
+    interface Stage<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Appelée à la fin de chaque étape.
+     *
+     * @param stage Le nom de l'étape.
+     * @param nanos La durée de l'étape, en nanosecondes.
+     * @param allocatedBytes La mémoire allouée par le thread qui a exécuté l'étape, ou -1 si la JVM ne la mesure pas.
+     *                       Le travail confié à d'autres threads (le pool commun de ParallelKMeans, par exemple)
+     *                       n'y est pas compté.
+     */
+    default void stageCompleted(String stage, long nanos, long allocatedBytes) {
+    }
+
+    /**
+     * Appelée à la fin de chaque itération de KMeans.
+     *
+     * @param run Le nom de l'exécution, préfixé par les scopes traversés.
+     * @param iteration Le numéro de l'itération, à partir de 1.
+     * @param reassigned Le nombre de points qui ont changé de cluster.
+     * @param centroidShift Le plus grand déplacement d'un centroid.
+     * @param distanceComputations Le nombre de distances point-centroid calculées pendant l'itération.
+     */
+    default void kmeansIteration(String run, int iteration, int reassigned, double centroidShift, long distanceComputations) {
+    }
+
+    /**
+     * Appelée à la fin de chaque exécution de DBSCAN.
+     *
+     * @param run Le nom de l'exécution, préfixé par les scopes traversés.
+     * @param regionQueries Le nombre de requêtes de voisinage.
+     * @param totalNeighbors Le nombre total de voisins renvoyés par ces requêtes.
+     * @param maxNeighbors Le plus grand nombre de voisins renvoyé par une requête.
+     */
+    default void dbscanCompleted(String run, long regionQueries, long totalNeighbors, int maxNeighbors) {
+    }
+
+    /**
+     * Méthode pour obtenir un listener qui transmet les mesures à celui-ci en préfixant les noms des étapes
+     * et des exécutions par "name/". Avec {@link #NONE}, renvoie {@link #NONE}.
+     *
+     * @param name Le nom du scope, par exemple "biome 3".
+     * @return Le listener du scope.
+     */
+    default MetricsListener scope(String name) {
+        if (this == NONE) return NONE;
+        MetricsListener parent = this;
+        String prefix = name + "/";
+        return new MetricsListener() {
+            @Override
+            public void stageCompleted(String stage, long nanos, long allocatedBytes) {
+                parent.stageCompleted(prefix + stage, nanos, allocatedBytes);
+            }
+
+            @Override
+            public void kmeansIteration(String run, int iteration, int reassigned, double centroidShift,
+                                        long distanceComputations) {
+                parent.kmeansIteration(prefix + run, iteration, reassigned, centroidShift, distanceComputations);
+            }
+
+            @Override
+            public void dbscanCompleted(String run, long regionQueries, long totalNeighbors, int maxNeighbors) {
+                parent.dbscanCompleted(prefix + run, regionQueries, totalNeighbors, maxNeighbors);
+            }
+        };
+    }
+
+    /**
+     * Méthode pour exécuter une étape et signaler sa durée et la mémoire allouée par le thread courant
+     * (les allocations des autres threads sollicités par l'étape ne sont pas comptées).
+     * Avec {@link #NONE}, l'étape est simplement exécutée.
+     *
+     * @param listener Le listener qui reçoit la mesure.
+     * @param stage Le nom de l'étape.
+     * @param step L'étape.
+     * @return Le résultat de l'étape.
+     * @throws E Si l'étape échoue ; sa durée n'est alors pas signalée.
+     */
+    static <T, E extends Exception> T measure(MetricsListener listener, String stage, Stage<T, E> step) throws E {
+        if (listener == NONE) return step.run();
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        T result = step.run();
+        long nanos = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        listener.stageCompleted(stage, nanos, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+        return result;
+    }
+
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.isThreadAllocatedMemoryEnabled() ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Classe implémentant KMeans par mini-lots (Sculley, 2010).
+ * Les centroids sont appris sur des lots de points tirés au hasard, avec un pas d'apprentissage propre
+ * à chaque centroid, puis une seule passe assigne tous les points. Seuls un lot et les étiquettes
+ * sont en mémoire : les points peuvent être lus directement dans l'image.
+ */
+public class MiniBatchKMeans implements ClusteringAlgorithm {
+    /**
+     * Taille de l'échantillon sur lequel les centroids initiaux sont choisis par k-means++, en nombre de lots.
+     */
+    private static final int SEEDING_BATCHES = 3;
+
+    private int k;
+    private int batchSize;
+    private int batches;
+    private long seed;
+    private double[][] centroids;
+
+    /**
+     * Constructeur pour initialiser les paramètres de l'apprentissage par mini-lots.
+     *
+     * @param k Le nombre de clusters.
+     * @param batchSize Le nombre de points par lot.
+     * @param batches Le nombre de lots utilisés pour apprendre les centroids.
+     * @param seed La graine du générateur aléatoire.
+     */
+    public MiniBatchKMeans(int k, int batchSize, int batches, long seed) {
+        this.k = k;
+        this.batchSize = batchSize;
+        this.batches = batches;
+        this.seed = seed;
+    }
+
+    @Override
+    public int[] cluster(double[][] data) {
+        return cluster(PointSource.of(data));
+    }
+
+    @Override
+    public int[] cluster(PointMatrix points) {
+        return cluster((PointSource) points);
+    }
+
+    @Override
+    public int[] cluster(PointSource source) {
+        fit(source);
+        return predict(source);
+    }
+
+    /**
+     * Méthode pour apprendre les centroids à partir de lots de points.
+     *
+     * @param source La source des points.
+     * @return Les centroids appris.
+     */
+    public double[][] fit(PointSource source) {
+        int n = source.size();
+        int dimensions = source.dimensions();
+        Random rand = new Random(seed);
+
+        centroids = seedCentroids(source, rand);
+        long[] counts = new long[k];
+        double[][] batch = new double[batchSize][dimensions];
+        int[] batchAssignments = new int[batchSize];
+
+        for (int b = 0; b < batches; b++) {
+            // Assigner tout le lot avant de déplacer les centroids
+            for (int i = 0; i < batchSize; i++) {
+                source.get(rand.nextInt(n), batch[i]);
+                batchAssignments[i] = getNearestCluster(batch[i], centroids);
+            }
+
+            // Déplacer chaque centroid vers ses points, d'un pas qui décroît avec le nombre de points vus
+            for (int i = 0; i < batchSize; i++) {
+                int cluster = batchAssignments[i];
+                counts[cluster]++;
+                double learningRate = 1.0 / counts[cluster];
+                double[] centroid = centroids[cluster];
+                for (int j = 0; j < dimensions; j++) {
+                    centroid[j] += learningRate * (batch[i][j] - centroid[j]);
+                }
+            }
+        }
+        return centroids;
+    }
+
+    /**
+     * Méthode pour assigner chaque point de la source au centroid appris le plus proche.
+     *
+     * @param source La source des points.
+     * @return Tableau contenant les numéros de cluster pour chaque point.
+     */
+    public int[] predict(PointSource source) {
+        int n = source.size();
+        int[] labels = new int[n];
+        double[] point = new double[source.dimensions()];
+        for (int i = 0; i < n; i++) {
+            source.get(i, point);
+            labels[i] = getNearestCluster(point, centroids);
+        }
+        return labels;
+    }
+
+    /**
+     * @return Les centroids appris lors du dernier appel à fit, ou null.
+     */
+    public double[][] getCentroids() {
+        return centroids;
+    }
+
+    /**
+     * Choisit les centroids initiaux par k-means++ sur un échantillon de quelques lots.
+     */
+    private double[][] seedCentroids(PointSource source, Random rand) {
+        int n = source.size();
+        int sampleSize = Math.max(k, Math.min(n, batchSize * SEEDING_BATCHES));
+        double[][] sample = new double[sampleSize][source.dimensions()];
+        for (int i = 0; i < sampleSize; i++) {
+            source.get(rand.nextInt(n), sample[i]);
+        }
+
+        double[][] seeds = new double[k][];
+        double[] minDist = new double[sampleSize];
+        Arrays.fill(minDist, Double.MAX_VALUE);
+        seeds[0] = sample[rand.nextInt(sampleSize)].clone();
+        for (int j = 1; j < k; j++) {
+            double total = 0;
+            for (int i = 0; i < sampleSize; i++) {
+                double dist = distance(sample[i], seeds[j - 1]);
+                minDist[i] = Math.min(minDist[i], dist * dist);
+                total += minDist[i];
+            }
+            int picked = rand.nextInt(sampleSize);
+            double target = rand.nextDouble() * total;
+            for (int i = 0; i < sampleSize && total > 0; i++) {
+                target -= minDist[i];
+                if (target < 0) {
+                    picked = i;
+                    break;
+                }
+            }
+            seeds[j] = sample[picked].clone();
+        }
+        return seeds;
+    }
+
+    /**
+     * Méthode pour trouver le cluster le plus proche d'un point donné.
+     *
+     * @param point Le point dont on veut trouver le cluster le plus proche.
+     * @param centroids Les centroids des clusters.
+     * @return L'index du cluster le plus proche.
+     */
+    private int getNearestCluster(double[] point, double[][] centroids) {
+        double minDist = Double.MAX_VALUE;
+        int nearestCluster = -1;
+
+        for (int i = 0; i < centroids.length; i++) {
+            double dist = distance(point, centroids[i]);
+            if (dist < minDist) {
+                minDist = dist;
+                nearestCluster = i;
+            }
+        }
+
+        return nearestCluster;
+    }
+
+    /**
+     * Méthode pour calculer la distance euclidienne entre deux points.
+     *
+     * @param point1 Premier point.
+     * @param point2 Deuxième point.
+     * @return La distance euclidienne entre les deux points.
+     */
+    private double distance(double[] point1, double[] point2) {
+        double sum = 0;
+        for (int i = 0; i < point1.length; i++) {
+            double diff = point1[i] - point2[i];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -10,10 +10,22 @@ public class NormeCielab {
     }
 
     public static double distanceCouleur(Color a, Color b) {
-        int[] tab1 = OutilCouleur.getTabColor(a.getRGB());
-        int[] tab2 = OutilCouleur.getTabColor(b.getRGB());
-        int[] lab1 = Lab.rgb2lab(tab1[0], tab1[1], tab1[2]);
-        int[] lab2 = Lab.rgb2lab(tab2[0], tab2[1], tab2[2]);
-        return Math.sqrt(Math.pow(lab2[0]-lab1[0], 2) + Math.pow(lab2[1]-lab1[1], 2) + Math.pow(lab2[2]-lab1[2], 2));
+        return distanceCouleur(a.getRGB(), b.getRGB());
+    }
+
+    /**
+     * Distance CIELAB entre deux couleurs au format 0xRRGGBB, sans allocation.
+     *
+     * @param rgb1 La première couleur.
+     * @param rgb2 La deuxième couleur.
+     * @return La distance euclidienne entre les deux couleurs dans l'espace Lab.
+     */
+    public static double distanceCouleur(int rgb1, int rgb2) {
+        int lab1 = Lab.rgb2labPacked(rgb1);
+        int lab2 = Lab.rgb2labPacked(rgb2);
+        int dL = Lab.getL(lab2) - Lab.getL(lab1);
+        int dA = Lab.getA(lab2) - Lab.getA(lab1);
+        int dB = Lab.getB(lab2) - Lab.getB(lab1);
+        return Math.sqrt(dL * dL + dA * dA + dB * dB);
     }
 }
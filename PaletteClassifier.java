@@ -0,0 +1,106 @@
+import java.awt.Color;
+
+/**
+ * Classe qui associe à chaque couleur l'index de la couleur la plus proche d'une palette, pour une distance donnée.
+ * Les réponses sont mémorisées dans une table directe de 2^24 octets (16 Mo) indexée par la couleur 0xRRGGBB :
+ * chaque couleur distincte n'est comparée qu'une fois à la palette, ensuite la classer coûte une lecture de tableau.
+ */
+public class PaletteClassifier {
+    /**
+     * Interface représentant une distance entre deux couleurs au format 0xRRGGBB.
+     */
+    public interface Metric {
+        double distance(int rgb1, int rgb2);
+    }
+
+    private int[] palette;
+    private Metric metric;
+    /**
+     * Index + 1 de la couleur la plus proche, 0 tant que la couleur n'a pas été classée.
+     */
+    private byte[] table;
+
+    /**
+     * Constructeur pour initialiser la palette et la distance.
+     *
+     * @param palette Les couleurs de la palette (au plus 255).
+     * @param metric La distance entre deux couleurs.
+     */
+    public PaletteClassifier(Color[] palette, Metric metric) {
+        if (palette.length > 255) {
+            throw new IllegalArgumentException("La palette ne peut pas dépasser 255 couleurs : " + palette.length);
+        }
+        this.palette = new int[palette.length];
+        for (int i = 0; i < palette.length; i++) {
+            this.palette[i] = palette[i].getRGB() & 0xFFFFFF;
+        }
+        this.metric = metric;
+        this.table = new byte[1 << 24];
+    }
+
+    /**
+     * Méthode pour trouver la couleur la plus proche dans la palette. En cas d'égalité, la première est retenue.
+     * Plusieurs threads peuvent classer en même temps : ils écrivent au pire la même valeur dans la table.
+     *
+     * @param rgb La couleur au format 0xRRGGBB.
+     * @return L'index de la couleur la plus proche dans la palette.
+     */
+    public int classify(int rgb) {
+        rgb &= 0xFFFFFF;
+        int entry = table[rgb] & 0xFF;
+        if (entry == 0) {
+            entry = closest(rgb) + 1;
+            table[rgb] = (byte) entry;
+        }
+        return entry - 1;
+    }
+
+    /**
+     * Méthode pour trouver la couleur la plus proche dans la palette.
+     *
+     * @param rgb La couleur au format 0xRRGGBB.
+     * @return La couleur la plus proche, au format 0xRRGGBB.
+     */
+    public int closestColor(int rgb) {
+        return palette[classify(rgb)];
+    }
+
+    /**
+     * Méthode pour choisir la couleur de chaque cluster : la couleur de la palette la plus proche du plus grand nombre
+     * de ses pixels.
+     *
+     * @param pixels Les pixels, au format 0xRRGGBB.
+     * @param labels Le cluster de chaque pixel ; les valeurs hors de [0, k[ (le bruit) sont ignorées.
+     * @param k Le nombre de clusters.
+     * @return La couleur de chaque cluster, au format 0xRRGGBB (noir pour un cluster vide).
+     */
+    public int[] dominantColors(int[] pixels, int[] labels, int k) {
+        int[][] votes = new int[k][palette.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int label = labels[i];
+            if (label >= 0 && label < k) votes[label][classify(pixels[i])]++;
+        }
+        int[] colors = new int[k];
+        for (int c = 0; c < k; c++) {
+            int best = -1;
+            for (int p = 0; p < palette.length; p++) {
+                if (votes[c][p] > 0 && (best < 0 || votes[c][p] > votes[c][best])) best = p;
+            }
+            colors[c] = best < 0 ? 0 : palette[best];
+        }
+        return colors;
+    }
+
+    private int closest(int rgb) {
+        int closest = 0;
+        double minDistance = Double.MAX_VALUE;
+        for (int i = 0; i < palette.length; i++) {
+            double distance = metric.distance(rgb, palette[i]);
+            if (distance < minDistance) {
+                minDistance = distance;
+                closest = i;
+            }
+        }
+        return closest;
+    }
+}
@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Classe implémentant DBSCAN en parallèle.
+ * Les points sont découpés en tranches selon la dimension la plus étendue ; chaque tranche est traitée
+ * avec une marge de eps (halo) et les clusters qui traversent les frontières sont fusionnés par union-find.
+ * Le résultat est identique à celui de {@link DBSCAN}, numérotation des clusters comprise.
+ */
+public class ParallelDBSCAN implements ClusteringAlgorithm {
+    /**
+     * Nombre minimal de points par tranche, en dessous duquel découper ne fait que multiplier les halos.
+     */
+    private static final int MIN_POINTS_PER_PARTITION = 4096;
+
+    /**
+     * Nombre de tranches par thread, pour équilibrer la charge entre zones denses et zones vides.
+     */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private double eps;
+    private int minPts;
+    private ForkJoinPool pool;
+
+    /**
+     * Constructeur pour initialiser les paramètres de DBSCAN, avec le pool commun.
+     *
+     * @param eps Le rayon de voisinage.
+     * @param minPts Le nombre minimum de points pour former un cluster.
+     */
+    public ParallelDBSCAN(double eps, int minPts) {
+        this(eps, minPts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructeur pour initialiser les paramètres de DBSCAN et le pool de threads.
+     *
+     * @param eps Le rayon de voisinage.
+     * @param minPts Le nombre minimum de points pour former un cluster.
+     * @param pool Le pool de threads sur lequel exécuter les tranches.
+     */
+    public ParallelDBSCAN(double eps, int minPts, ForkJoinPool pool) {
+        this.eps = eps;
+        this.minPts = minPts;
+        this.pool = pool;
+    }
+
+    @Override
+    public int[] cluster(double[][] data) {
+        return cluster(PointMatrix.of(data));
+    }
+
+    @Override
+    public int[] cluster(PointMatrix data) {
+        int n = data.size();
+        int partitionCount = Math.min(pool.getParallelism() * PARTITIONS_PER_THREAD, n / MIN_POINTS_PER_PARTITION);
+        if (partitionCount <= 1) {
+            return new DBSCAN(eps, minPts).cluster(data);
+        }
+
+        Partition[] partitions = partition(data, partitionCount);
+        boolean[] core = new boolean[n];
+        ConcurrentUnionFind unionFind = new ConcurrentUnionFind(n);
+        int[] borderRoots = new int[n];
+
+        // 1. Points noyaux : le voisinage complet d'un point possédé est dans sa tranche élargie
+        forEachPartition(partitions, p -> {
+            IntList neighbors = new IntList(64);
+            for (int i = 0; i < p.ownedCount; i++) {
+                p.index.rangeQuery(i, neighbors);
+                core[p.globalIndex[i]] = neighbors.size() >= minPts;
+            }
+        });
+
+        // 2. Fusion des noyaux voisins, y compris à travers les frontières grâce au halo
+        forEachPartition(partitions, p -> {
+            IntList neighbors = new IntList(64);
+            for (int i = 0; i < p.ownedCount; i++) {
+                int point = p.globalIndex[i];
+                if (!core[point]) continue;
+                p.index.rangeQuery(i, neighbors);
+                for (int j = 0; j < neighbors.size(); j++) {
+                    int neighbor = p.globalIndex[neighbors.get(j)];
+                    if (core[neighbor]) {
+                        unionFind.union(point, neighbor);
+                    }
+                }
+            }
+        });
+
+        // 3. Points frontière : rattachés au cluster de plus petit numéro, comme en séquentiel
+        forEachPartition(partitions, p -> {
+            IntList neighbors = new IntList(64);
+            for (int i = 0; i < p.ownedCount; i++) {
+                int point = p.globalIndex[i];
+                if (core[point]) continue;
+                p.index.rangeQuery(i, neighbors);
+                int bestRoot = -1;
+                for (int j = 0; j < neighbors.size(); j++) {
+                    int neighbor = p.globalIndex[neighbors.get(j)];
+                    if (core[neighbor]) {
+                        int root = unionFind.find(neighbor);
+                        if (bestRoot == -1 || root < bestRoot) {
+                            bestRoot = root;
+                        }
+                    }
+                }
+                borderRoots[point] = bestRoot;
+            }
+        });
+
+        // 4. Numérotation : les racines sont les plus petits index, donc l'ordre séquentiel est conservé
+        int[] labels = new int[n];
+        int clusterId = 0;
+        for (int i = 0; i < n; i++) {
+            if (core[i] && unionFind.find(i) == i) {
+                labels[i] = ++clusterId;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (core[i]) {
+                labels[i] = labels[unionFind.find(i)];
+            } else {
+                labels[i] = borderRoots[i] == -1 ? -1 : labels[borderRoots[i]];
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Découpe les points en tranches de tailles égales selon la dimension de plus grande étendue.
+     */
+    private Partition[] partition(PointMatrix data, int partitionCount) {
+        int n = data.size();
+        int dimensions = data.dimensions();
+        int axis = 0;
+        double bestSpread = -1;
+        for (int d = 0; d < dimensions; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                min = Math.min(min, data.get(i, d));
+                max = Math.max(max, data.get(i, d));
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                axis = d;
+            }
+        }
+
+        double[] sorted = new double[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = data.get(i, axis);
+        }
+        Arrays.parallelSort(sorted);
+        double[] bounds = new double[partitionCount + 1];
+        bounds[0] = Double.NEGATIVE_INFINITY;
+        bounds[partitionCount] = Double.POSITIVE_INFINITY;
+        for (int p = 1; p < partitionCount; p++) {
+            bounds[p] = sorted[(int) ((long) n * p / partitionCount)];
+        }
+
+        Partition[] partitions = new Partition[partitionCount];
+        int finalAxis = axis;
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new Partition(bounds[p], bounds[p + 1]);
+        }
+        forEachPartition(partitions, p -> p.collect(data, finalAxis, eps));
+        return partitions;
+    }
+
+    private void forEachPartition(Partition[] partitions, Consumer<Partition> action) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Partition partition : partitions) {
+            tasks.add(pool.submit(() -> action.accept(partition)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Tranche de l'espace : les points possédés (coordonnée dans [low, high)) viennent en tête,
+     * suivis des points du halo, à moins de eps de la tranche.
+     */
+    private static class Partition {
+        private double low;
+        private double high;
+        private int ownedCount;
+        private int[] globalIndex;
+        private SpatialIndex index;
+
+        private Partition(double low, double high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        private void collect(PointMatrix data, int axis, double eps) {
+            IntList owned = new IntList(1024);
+            IntList halo = new IntList(1024);
+            for (int i = 0; i < data.size(); i++) {
+                double value = data.get(i, axis);
+                if (value >= low && value < high) {
+                    owned.add(i);
+                } else if (value >= low - eps && value <= high + eps) {
+                    halo.add(i);
+                }
+            }
+            ownedCount = owned.size();
+            globalIndex = new int[owned.size() + halo.size()];
+            for (int i = 0; i < owned.size(); i++) {
+                globalIndex[i] = owned.get(i);
+            }
+            for (int i = 0; i < halo.size(); i++) {
+                globalIndex[ownedCount + i] = halo.get(i);
+            }
+            index = SpatialIndex.build(data.select(globalIndex), eps);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Classe implémentant KMeans en parallèle : chaque bloc de points est assigné et accumulé
+ * par une tâche du pool, puis les accumulateurs sont réduits après chaque itération.
+ * Les blocs étant fixes, le résultat est identique à celui de {@link KMeans}.
+ */
+public class ParallelKMeans extends KMeans {
+    private ForkJoinPool pool;
+
+    /**
+     * Constructeur pour initialiser le nombre de clusters et le nombre maximal d'itérations, avec le pool commun.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     */
+    public ParallelKMeans(int k, int maxIterations) {
+        this(k, maxIterations, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructeur pour initialiser le nombre de clusters, le nombre maximal d'itérations et le pool de threads.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     * @param pool Le pool de threads sur lequel exécuter les blocs.
+     */
+    public ParallelKMeans(int k, int maxIterations, ForkJoinPool pool) {
+        this(k, maxIterations, KMeansStrategy.LLOYD, pool);
+    }
+
+    /**
+     * Constructeur pour initialiser le nombre de clusters, le nombre maximal d'itérations, la stratégie d'assignation
+     * et le pool de threads.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     * @param strategy La stratégie d'assignation des points aux centroids.
+     * @param pool Le pool de threads sur lequel exécuter les blocs.
+     */
+    public ParallelKMeans(int k, int maxIterations, KMeansStrategy strategy, ForkJoinPool pool) {
+        super(k, maxIterations, strategy);
+        this.pool = pool;
+    }
+
+    /**
+     * Constructeur complet. À graine égale, deux exécutions donnent exactement le même résultat.
+     *
+     * @param k Le nombre de clusters.
+     * @param maxIterations Le nombre maximal d'itérations.
+     * @param strategy La stratégie d'assignation des points aux centroids.
+     * @param initialisation La méthode de choix des centroids initiaux.
+     * @param seed La graine du générateur aléatoire.
+     * @param pool Le pool de threads sur lequel exécuter les blocs.
+     */
+    public ParallelKMeans(int k, int maxIterations, KMeansStrategy strategy, KMeansInitialisation initialisation,
+                          long seed, ForkJoinPool pool) {
+        super(k, maxIterations, strategy, initialisation, seed);
+        this.pool = pool;
+    }
+
+    @Override
+    protected void forEachChunk(int chunkCount, IntConsumer task) {
+        if (chunkCount == 1) {
+            task.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunkCount; c++) {
+            int chunk = c;
+            tasks.add(pool.submit(() -> task.accept(chunk)));
+        }
+        for (ForkJoinTask<?> t : tasks) {
+            t.join();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Classe donnant un accès direct aux pixels d'une image, sous la forme d'un tableau d'entiers au format RGB compacté (0xRRGGBB),
+ * ligne par ligne. L'image est convertie une seule fois en TYPE_INT_RGB : les lectures et écritures ne passent plus
+ * par le modèle de couleur de BufferedImage à chaque pixel.
+ */
+public class PixelBuffer {
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    private PixelBuffer(BufferedImage image) {
+        this.image = image;
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    /**
+     * Constructeur pour créer une image noire.
+     *
+     * @param width La largeur.
+     * @param height La hauteur.
+     */
+    public PixelBuffer(int width, int height) {
+        this(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Donne accès aux pixels d'une image. Une image déjà au format TYPE_INT_RGB est partagée sans copie
+     * (les écritures la modifient), les autres sont converties une fois.
+     *
+     * @param image L'image.
+     * @return Le tampon de pixels.
+     */
+    public static PixelBuffer of(BufferedImage image) {
+        if (isPacked(image)) {
+            return new PixelBuffer(image);
+        }
+        PixelBuffer buffer = new PixelBuffer(image.getWidth(), image.getHeight());
+        image.getRGB(0, 0, buffer.width, buffer.height, buffer.pixels, 0, buffer.width);
+        for (int i = 0; i < buffer.pixels.length; i++) {
+            buffer.pixels[i] &= 0xFFFFFF;
+        }
+        return buffer;
+    }
+
+    /**
+     * Vérifie que les pixels de l'image sont stockés dans un seul tableau d'entiers, sans décalage ni bourrage.
+     */
+    private static boolean isPacked(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_INT_RGB
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel
+                && ((SinglePixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride() == image.getWidth()
+                && image.getRaster().getDataBuffer().getOffset() == 0
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0;
+    }
+
+    /**
+     * @return La largeur de l'image.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return La hauteur de l'image.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Le tableau des pixels (0xRRGGBB), ligne par ligne, partagé avec l'image.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Méthode pour lire un pixel.
+     *
+     * @param x L'abscisse.
+     * @param y L'ordonnée.
+     * @return La couleur au format 0xRRGGBB.
+     */
+    public int get(int x, int y) {
+        return pixels[y * width + x] & 0xFFFFFF;
+    }
+
+    /**
+     * Méthode pour écrire un pixel.
+     *
+     * @param x L'abscisse.
+     * @param y L'ordonnée.
+     * @param rgb La couleur au format 0xRRGGBB.
+     */
+    public void set(int x, int y, int rgb) {
+        pixels[y * width + x] = rgb & 0xFFFFFF;
+    }
+
+    /**
+     * Méthode pour copier une ligne de pixels.
+     *
+     * @param y L'ordonnée de la ligne.
+     * @param row Le tableau (de taille au moins width) qui reçoit la ligne.
+     */
+    public void getRow(int y, int[] row) {
+        System.arraycopy(pixels, y * width, row, 0, width);
+    }
+
+    /**
+     * Méthode pour écrire une ligne de pixels.
+     *
+     * @param y L'ordonnée de la ligne.
+     * @param row La ligne, au format 0xRRGGBB.
+     */
+    public void setRow(int y, int[] row) {
+        System.arraycopy(row, 0, pixels, y * width, width);
+    }
+
+    /**
+     * Méthode pour copier un rectangle de pixels, ligne par ligne.
+     *
+     * @param x L'abscisse du coin supérieur gauche.
+     * @param y L'ordonnée du coin supérieur gauche.
+     * @param tileWidth La largeur du rectangle.
+     * @param tileHeight La hauteur du rectangle.
+     * @param tile Le tableau (de taille au moins tileWidth * tileHeight) qui reçoit les pixels.
+     */
+    public void getTile(int x, int y, int tileWidth, int tileHeight, int[] tile) {
+        for (int row = 0; row < tileHeight; row++) {
+            System.arraycopy(pixels, (y + row) * width + x, tile, row * tileWidth, tileWidth);
+        }
+    }
+
+    /**
+     * Méthode pour écrire un rectangle de pixels, ligne par ligne.
+     *
+     * @param x L'abscisse du coin supérieur gauche.
+     * @param y L'ordonnée du coin supérieur gauche.
+     * @param tileWidth La largeur du rectangle.
+     * @param tileHeight La hauteur du rectangle.
+     * @param tile Les pixels du rectangle, au format 0xRRGGBB.
+     */
+    public void setTile(int x, int y, int tileWidth, int tileHeight, int[] tile) {
+        for (int row = 0; row < tileHeight; row++) {
+            System.arraycopy(tile, row * tileWidth, pixels, (y + row) * width + x, tileWidth);
+        }
+    }
+
+    /**
+     * @return L'image TYPE_INT_RGB adossée à ce tampon.
+     */
+    public BufferedImage toImage() {
+        return image;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Classe représentant une matrice de points dense, stockée dans un seul tableau de doubles.
+ * La coordonnée d du point i se trouve à l'index i * rowStride + d * columnStride, ce qui couvre
+ * la disposition par lignes (un point après l'autre) comme la disposition par colonnes (une coordonnée après l'autre).
+ */
+public class PointMatrix implements PointSource {
+    private double[] values;
+    private int size;
+    private int dimensions;
+    private int rowStride;
+    private int columnStride;
+
+    private PointMatrix(double[] values, int size, int dimensions, int rowStride, int columnStride) {
+        this.values = values;
+        this.size = size;
+        this.dimensions = dimensions;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    /**
+     * Constructeur pour créer une matrice de points nulle, disposée par lignes.
+     *
+     * @param size Le nombre de points.
+     * @param dimensions La dimension des points.
+     * @throws IllegalArgumentException Si size * dimensions valeurs ne tiennent pas dans un tableau.
+     */
+    public PointMatrix(int size, int dimensions) {
+        this(new double[length(size, dimensions)], size, dimensions, dimensions, 1);
+    }
+
+    private static int length(int size, int dimensions) {
+        long length = (long) size * dimensions;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matrice trop grande : " + size + " points de dimension " + dimensions
+                    + ", soit " + length + " valeurs");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Matrice disposée par lignes : le point i commence à l'index i * stride.
+     *
+     * @param values Les valeurs.
+     * @param size Le nombre de points.
+     * @param dimensions La dimension des points.
+     * @param stride Le pas entre deux points (au moins dimensions).
+     * @return La matrice, qui partage le tableau de valeurs.
+     */
+    public static PointMatrix rowMajor(double[] values, int size, int dimensions, int stride) {
+        return new PointMatrix(values, size, dimensions, stride, 1);
+    }
+
+    /**
+     * Matrice disposée par colonnes (structure de tableaux) : la coordonnée d commence à l'index d * stride.
+     *
+     * @param values Les valeurs.
+     * @param size Le nombre de points.
+     * @param dimensions La dimension des points.
+     * @param stride Le pas entre deux coordonnées (au moins size).
+     * @return La matrice, qui partage le tableau de valeurs.
+     */
+    public static PointMatrix columnMajor(double[] values, int size, int dimensions, int stride) {
+        return new PointMatrix(values, size, dimensions, 1, stride);
+    }
+
+    /**
+     * Copie un tableau de points en deux dimensions dans une matrice disposée par lignes.
+     *
+     * @param data Les points.
+     * @return La matrice correspondante.
+     */
+    public static PointMatrix of(double[][] data) {
+        int dimensions = data.length == 0 ? 0 : data[0].length;
+        PointMatrix matrix = new PointMatrix(data.length, dimensions);
+        for (int i = 0; i < data.length; i++) {
+            System.arraycopy(data[i], 0, matrix.values, i * dimensions, dimensions);
+        }
+        return matrix;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public void get(int index, double[] point) {
+        int base = index * rowStride;
+        for (int d = 0; d < dimensions; d++) {
+            point[d] = values[base + d * columnStride];
+        }
+    }
+
+    /**
+     * Méthode pour lire une coordonnée.
+     *
+     * @param index L'index du point.
+     * @param dimension La dimension.
+     * @return La coordonnée.
+     */
+    public double get(int index, int dimension) {
+        return values[index * rowStride + dimension * columnStride];
+    }
+
+    /**
+     * Méthode pour écrire une coordonnée.
+     *
+     * @param index L'index du point.
+     * @param dimension La dimension.
+     * @param value La nouvelle coordonnée.
+     */
+    public void set(int index, int dimension, double value) {
+        values[index * rowStride + dimension * columnStride] = value;
+    }
+
+    /**
+     * Méthode pour copier un point dans un nouveau tableau.
+     *
+     * @param index L'index du point.
+     * @return Les coordonnées du point.
+     */
+    public double[] getRow(int index) {
+        double[] point = new double[dimensions];
+        get(index, point);
+        return point;
+    }
+
+    /**
+     * Copie les points désignés dans une nouvelle matrice disposée par lignes.
+     *
+     * @param indices Les index des points à copier, dans l'ordre voulu.
+     * @return La nouvelle matrice.
+     */
+    public PointMatrix select(int[] indices) {
+        PointMatrix selection = new PointMatrix(indices.length, dimensions);
+        for (int i = 0; i < indices.length; i++) {
+            int base = indices[i] * rowStride;
+            for (int d = 0; d < dimensions; d++) {
+                selection.values[i * dimensions + d] = values[base + d * columnStride];
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Méthode pour copier la matrice dans un tableau de points en deux dimensions.
+     *
+     * @return Les points.
+     */
+    public double[][] toArray() {
+        double[][] data = new double[size][];
+        for (int i = 0; i < size; i++) {
+            data[i] = getRow(i);
+        }
+        return data;
+    }
+
+    /**
+     * Méthode pour calculer le carré de la distance euclidienne entre un point de la matrice et un point donné.
+     *
+     * @param index L'index du point de la matrice.
+     * @param point Le point donné.
+     * @return Le carré de la distance euclidienne.
+     */
+    public double squaredDistance(int index, double[] point) {
+        int base = index * rowStride;
+        double sum = 0;
+        for (int d = 0; d < dimensions; d++) {
+            double diff = values[base + d * columnStride] - point[d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Méthode pour calculer la distance euclidienne entre un point de la matrice et un point donné.
+     *
+     * @param index L'index du point de la matrice.
+     * @param point Le point donné.
+     * @return La distance euclidienne.
+     */
+    public double distance(int index, double[] point) {
+        return Math.sqrt(squaredDistance(index, point));
+    }
+
+    /**
+     * Méthode pour calculer la distance euclidienne entre deux points de la matrice.
+     *
+     * @param index1 L'index du premier point.
+     * @param index2 L'index du deuxième point.
+     * @return La distance euclidienne.
+     */
+    public double distance(int index1, int index2) {
+        int base1 = index1 * rowStride;
+        int base2 = index2 * rowStride;
+        double sum = 0;
+        for (int d = 0; d < dimensions; d++) {
+            double diff = values[base1 + d * columnStride] - values[base2 + d * columnStride];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+}
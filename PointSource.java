@@ -0,0 +1,80 @@
+import java.awt.image.BufferedImage;
+
+/**
+ * Interface représentant une source de points en accès direct, qui n'oblige pas à matérialiser
+ * tous les points sous forme de double[][].
+ */
+public interface PointSource {
+    /**
+     * @return Le nombre de points.
+     */
+    int size();
+
+    /**
+     * @return La dimension des points.
+     */
+    int dimensions();
+
+    /**
+     * Méthode pour lire un point.
+     *
+     * @param index L'index du point.
+     * @param point Le tableau (de taille dimensions()) qui reçoit les coordonnées.
+     */
+    void get(int index, double[] point);
+
+    /**
+     * Source adossée à un tableau de points existant.
+     *
+     * @param data Les points.
+     * @return La source correspondante.
+     */
+    static PointSource of(double[][] data) {
+        return new PointSource() {
+            @Override
+            public int size() {
+                return data.length;
+            }
+
+            @Override
+            public int dimensions() {
+                return data[0].length;
+            }
+
+            @Override
+            public void get(int index, double[] point) {
+                System.arraycopy(data[index], 0, point, 0, point.length);
+            }
+        };
+    }
+
+    /**
+     * Source qui lit les couleurs normalisées (r, g, b dans [0, 1]) directement dans l'image,
+     * dans le même ordre que extractPixelData (ligne par ligne).
+     *
+     * @param image L'image.
+     * @return La source correspondante.
+     */
+    static PointSource ofImage(BufferedImage image) {
+        int[] pixels = PixelBuffer.of(image).getPixels();
+        return new PointSource() {
+            @Override
+            public int size() {
+                return pixels.length;
+            }
+
+            @Override
+            public int dimensions() {
+                return 3;
+            }
+
+            @Override
+            public void get(int index, double[] point) {
+                int rgb = pixels[index];
+                point[0] = ((rgb >> 16) & 0xFF) / 255.0;
+                point[1] = ((rgb >> 8) & 0xFF) / 255.0;
+                point[2] = (rgb & 0xFF) / 255.0;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Interface représentant un index spatial capable de répondre aux requêtes de voisinage de rayon eps.
+ */
+public interface SpatialIndex {
+    /**
+     * En dessous de ce nombre de points, un parcours linéaire est plus rapide que n'importe quel index.
+     */
+    int LINEAR_SCAN_MAX_POINTS = 64;
+
+    /**
+     * Au-delà de cette dimension, la grille (3^d cellules voisines) est remplacée par un KD-tree.
+     */
+    int GRID_MAX_DIMENSIONS = 3;
+
+    /**
+     * Méthode pour trouver tous les points situés à une distance inférieure ou égale à eps d'un point.
+     *
+     * @param pointIndex L'index du point de requête.
+     * @param neighbors La liste (vidée au préalable) qui reçoit les index des voisins, point lui-même compris.
+     */
+    void rangeQuery(int pointIndex, IntList neighbors);
+
+    /**
+     * Construit l'index le plus adapté selon la dimension et le nombre de points.
+     *
+     * @param points Les points à indexer.
+     * @param eps Le rayon de voisinage.
+     * @return L'index spatial construit.
+     */
+    static SpatialIndex build(PointMatrix points, double eps) {
+        int n = points.size();
+        if (n <= LINEAR_SCAN_MAX_POINTS) {
+            return new LinearScanIndex(points, eps);
+        }
+        if (points.dimensions() <= GRID_MAX_DIMENSIONS && eps > 0) {
+            GridIndex grid = GridIndex.create(points, eps);
+            if (grid != null) {
+                return grid;
+            }
+        }
+        return new KDTreeIndex(points, eps);
+    }
+}
@@ -0,0 +1,90 @@
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Classe pour lire une image par régions, sans la charger entièrement en mémoire.
+ * Seule la région demandée est conservée ; selon le format, le décodeur peut toutefois devoir
+ * décoder les lignes qui la précèdent (c'est le cas du JPEG, qui n'est pas tuilé).
+ */
+public class TiledImageReader implements Closeable {
+    private ImageInputStream input;
+    private ImageReader reader;
+
+    /**
+     * Constructeur pour ouvrir une image.
+     *
+     * @param file Le fichier de l'image.
+     * @throws IOException Si le fichier ne peut pas être lu ou si son format n'est pas reconnu.
+     */
+    public TiledImageReader(File file) throws IOException {
+        input = ImageIO.createImageInputStream(file);
+        if (input == null) {
+            throw new IOException("Impossible de lire le fichier : " + file);
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            input.close();
+            throw new IOException("Format d'image non reconnu : " + file);
+        }
+        reader = readers.next();
+        reader.setInput(input, false, true);
+    }
+
+    /**
+     * @return La largeur de l'image.
+     * @throws IOException Si l'en-tête de l'image ne peut pas être lu.
+     */
+    public int getWidth() throws IOException {
+        return reader.getWidth(0);
+    }
+
+    /**
+     * @return La hauteur de l'image.
+     * @throws IOException Si l'en-tête de l'image ne peut pas être lu.
+     */
+    public int getHeight() throws IOException {
+        return reader.getHeight(0);
+    }
+
+    /**
+     * Méthode pour lire une région de l'image.
+     *
+     * @param x L'abscisse du coin supérieur gauche.
+     * @param y L'ordonnée du coin supérieur gauche.
+     * @param width La largeur de la région.
+     * @param height La hauteur de la région.
+     * @return Les pixels de la région.
+     * @throws IOException Si la région ne peut pas être décodée.
+     */
+    public PixelBuffer read(int x, int y, int width, int height) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(x, y, width, height));
+        return PixelBuffer.of(reader.read(0, param));
+    }
+
+    /**
+     * Méthode pour lire l'image entière en ne gardant qu'un pixel sur step dans chaque direction.
+     *
+     * @param step Le pas de sous-échantillonnage.
+     * @return Les pixels de l'image réduite.
+     * @throws IOException Si l'image ne peut pas être décodée.
+     */
+    public PixelBuffer readSubsampled(int step) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return PixelBuffer.of(reader.read(0, param));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        input.close();
+    }
+}
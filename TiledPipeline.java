@@ -0,0 +1,130 @@
+import java.io.IOException;
+
+/**
+ * Classe qui traite une image tuile par tuile : lecture d'un bloc de tuiles et de son halo, flou gaussien,
+ * étiquetage des pixels tuile par tuile, puis écriture des étiquettes dans un {@link LabelStore}.
+ * Un bloc regroupe au plus {@link #MAX_TILES_PER_READ} tuiles d'une même rangée et il est lu avec un halo
+ * sur ses quatre côtés, limité aux bords de l'image. Seul un bloc est en mémoire : la mémoire utilisée dépend
+ * de la taille des tuiles et du niveau de flou, pas de la taille de l'image.
+ * Regrouper les tuiles limite le nombre de lectures : les décodeurs qui doivent relire le fichier jusqu'à la région
+ * demandée (JPEG) le font une fois par bloc, soit largeur / (tileSize * MAX_TILES_PER_READ) fois par rangée.
+ * Le halo couvre le rayon du flou : le résultat est identique à celui du flou appliqué à l'image entière.
+ */
+public class TiledPipeline {
+    /**
+     * Interface représentant l'étiquetage des pixels d'une tuile, par exemple par la palette ou par des centroids appris.
+     */
+    public interface TileLabeller {
+        /**
+         * @param tile Les pixels floutés de la tuile.
+         * @return L'étiquette de chaque pixel de la tuile, ligne par ligne.
+         */
+        int[] label(PixelBuffer tile);
+    }
+
+    /**
+     * Nombre maximal de tuiles lues en une seule région.
+     */
+    public static final int MAX_TILES_PER_READ = 8;
+
+    private int tileSize;
+    private int blurLevel;
+
+    /**
+     * Constructeur pour initialiser la taille des tuiles et le niveau de flou.
+     *
+     * @param tileSize Le côté des tuiles, en pixels.
+     * @param blurLevel Le niveau de flou gaussien (taille du noyau), ou 1 pour ne pas flouter.
+     */
+    public TiledPipeline(int tileSize, int blurLevel) {
+        this.tileSize = tileSize;
+        this.blurLevel = blurLevel;
+    }
+
+    /**
+     * Méthode pour étiqueter tous les pixels d'une image.
+     *
+     * @param reader L'image, lue par régions.
+     * @param store Le stockage qui reçoit les étiquettes, de la taille de l'image.
+     * @param labeller L'étiquetage des pixels d'une tuile.
+     * @throws IOException Si une région ne peut pas être décodée.
+     */
+    public void run(TiledImageReader reader, LabelStore store, TileLabeller labeller) throws IOException {
+        int width = reader.getWidth();
+        int height = reader.getHeight();
+
+        int blockWidth = tileSize * MAX_TILES_PER_READ;
+
+        for (int ty = 0; ty < height; ty += tileSize) {
+            int h = Math.min(tileSize, height - ty);
+            for (int bx = 0; bx < width; bx += blockWidth) {
+                int bw = Math.min(blockWidth, width - bx);
+                PixelBuffer block = readBlock(reader, bx, ty, bw, h);
+                int left = bx - Math.max(0, bx - blurLevel / 2);
+                int top = ty - Math.max(0, ty - blurLevel / 2);
+
+                // Découper les tuiles sans le halo, puis les étiqueter
+                for (int tx = bx; tx < bx + bw; tx += tileSize) {
+                    int w = Math.min(tileSize, bx + bw - tx);
+                    PixelBuffer tile = new PixelBuffer(w, h);
+                    block.getTile(tx - bx + left, top, w, h, tile.getPixels());
+                    store.setTile(tx, ty, w, h, labeller.label(tile));
+                }
+            }
+        }
+    }
+
+    /**
+     * Méthode pour obtenir une version réduite de l'image floutée, en ne gardant qu'un pixel sur step dans chaque
+     * direction : ses couleurs suivent la même distribution que les pixels étiquetés par run, ce qui en fait
+     * l'échantillon sur lequel apprendre les biomes.
+     * L'image est lue par blocs comme dans run, avec la même mémoire ; elle est donc décodée et floutée
+     * une seconde fois si run est appelée ensuite (le modèle doit être appris avant l'étiquetage).
+     *
+     * @param reader L'image, lue par régions.
+     * @param step Le pas de sous-échantillonnage.
+     * @return Les pixels de l'image floutée réduite.
+     * @throws IOException Si une région ne peut pas être décodée.
+     */
+    public PixelBuffer readBlurredSubsampled(TiledImageReader reader, int step) throws IOException {
+        int width = reader.getWidth();
+        int height = reader.getHeight();
+        PixelBuffer preview = new PixelBuffer((width + step - 1) / step, (height + step - 1) / step);
+
+        int blockWidth = tileSize * MAX_TILES_PER_READ;
+
+        for (int ty = 0; ty < height; ty += tileSize) {
+            int h = Math.min(tileSize, height - ty);
+            for (int bx = 0; bx < width; bx += blockWidth) {
+                int bw = Math.min(blockWidth, width - bx);
+                PixelBuffer block = readBlock(reader, bx, ty, bw, h);
+                int left = bx - Math.max(0, bx - blurLevel / 2);
+                int top = ty - Math.max(0, ty - blurLevel / 2);
+
+                // Garder les lignes et les colonnes multiples du pas
+                for (int y = ty + (step - ty % step) % step; y < ty + h; y += step) {
+                    for (int x = bx + (step - bx % step) % step; x < bx + bw; x += step) {
+                        preview.set(x / step, y / step, block.get(x - bx + left, y - ty + top));
+                    }
+                }
+            }
+        }
+        return preview;
+    }
+
+    /**
+     * Lit et floute la région [x, x + w[ × [y, y + h[ avec son halo sur les quatre côtés, limité aux bords de l'image.
+     */
+    private PixelBuffer readBlock(TiledImageReader reader, int x, int y, int w, int h) throws IOException {
+        int halo = blurLevel / 2;
+        int x0 = Math.max(0, x - halo);
+        int y0 = Math.max(0, y - halo);
+        int x1 = Math.min(reader.getWidth(), x + w + halo);
+        int y1 = Math.min(reader.getHeight(), y + h + halo);
+        PixelBuffer block = reader.read(x0, y0, x1 - x0, y1 - y0);
+        if (halo > 0) {
+            block = PixelBuffer.of(FlouGaussien.applyGaussianBlur(block.toImage(), blurLevel));
+        }
+        return block;
+    }
+}
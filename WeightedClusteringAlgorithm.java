@@ -0,0 +1,26 @@
+/**
+ * Interface représentant un algorithme de clustering qui accepte des points pondérés :
+ * un point de poids w compte comme w points identiques.
+ */
+public interface WeightedClusteringAlgorithm extends ClusteringAlgorithm {
+    /**
+     * Méthode pour effectuer le clustering sur des points pondérés.
+     *
+     * @param data Tableau de valeurs numériques en deux dimensions.
+     * @param weights Le poids de chaque point, ou null pour des poids tous égaux à 1.
+     * @return Tableau contenant les numéros de cluster pour chaque objet.
+     */
+    int[] cluster(double[][] data, double[] weights);
+
+    /**
+     * Méthode pour effectuer le clustering sur une matrice de points dense pondérée.
+     * Par défaut, la matrice est copiée dans un tableau en deux dimensions.
+     *
+     * @param points La matrice des points.
+     * @param weights Le poids de chaque point, ou null pour des poids tous égaux à 1.
+     * @return Tableau contenant les numéros de cluster pour chaque objet.
+     */
+    default int[] cluster(PointMatrix points, double[] weights) {
+        return cluster(points.toArray(), weights);
+    }
+}